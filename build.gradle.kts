@@ -9,4 +9,30 @@ dependencies {
     implementation(libs.edc.spi.util)
     implementation(libs.edc.spi.data.plane.util)
     implementation(libs.gson)
+
+    testImplementation(libs.junit.jupiter.api)
+    testImplementation(libs.assertj)
+    testImplementation(libs.mockito.core)
+    testImplementation(libs.okhttp.mockwebserver)
+    testRuntimeOnly(libs.junit.jupiter.engine)
+}
+
+// the meter series generalization is vectorized with the incubating Vector API; runtimes that do not add the
+// module fall back to a scalar implementation
+tasks.withType<JavaCompile> {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+tasks.test {
+    useJUnitPlatform()
+    // exercises the vectorized generalizer, the scalar one is tested directly
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+// Runs a benchmark harness from the test sources: ./gradlew benchmark -Pbenchmark=<main class> [--args="..."]
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs the benchmark harness given by the benchmark property"
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass.set(providers.gradleProperty("benchmark"))
 }
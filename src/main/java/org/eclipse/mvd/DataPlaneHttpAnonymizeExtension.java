@@ -7,28 +7,218 @@ import org.eclipse.edc.runtime.metamodel.annotation.Extension;
 import org.eclipse.edc.runtime.metamodel.annotation.Inject;
 import org.eclipse.edc.runtime.metamodel.annotation.Provides;
 import org.eclipse.edc.runtime.metamodel.annotation.Setting;
+import org.eclipse.edc.spi.EdcException;
 import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.security.Vault;
 import org.eclipse.edc.spi.system.ServiceExtension;
 import org.eclipse.edc.spi.system.ServiceExtensionContext;
 import org.eclipse.edc.spi.types.TypeManager;
+import org.eclipse.edc.mvd.anonymize.AnonymizedPayloadCache;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.anonymize.HmacPseudonymizationStrategy;
+import org.eclipse.edc.mvd.anonymize.KAnonymityPolicy;
+import org.eclipse.edc.mvd.anonymize.MaskingStrategy;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesGeneralizer;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesPolicy;
+import org.eclipse.edc.mvd.anonymize.NameAnonymizationStrategy;
+import org.eclipse.edc.mvd.anonymize.WindowedKAnonymizer;
+import org.eclipse.edc.mvd.checkpoint.FileTransferCheckpointStore;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.delta.DeltaIndexStore;
+import org.eclipse.edc.mvd.delta.FileDeltaIndexStore;
 import org.eclipse.edc.mvd.params.HttpRequestFactory;
 import org.eclipse.edc.mvd.params.HttpRequestParamsProviderImpl;
+import org.eclipse.edc.mvd.pipeline.AdaptivePartitioner;
+import org.eclipse.edc.mvd.pipeline.AdmissionController;
+import org.eclipse.edc.mvd.pipeline.AsyncHttpExecutor;
+import org.eclipse.edc.mvd.pipeline.FanOutHttpDataSinkFactory;
 import org.eclipse.edc.mvd.pipeline.HttpDataSinkFactory;
+import org.eclipse.edc.mvd.pipeline.HostRateLimiter;
 import org.eclipse.edc.mvd.pipeline.HttpDataSourceFactory;
+import org.eclipse.edc.mvd.pipeline.SourceRetryPolicy;
+import org.eclipse.edc.mvd.tracing.FileSpanExporter;
+import org.eclipse.edc.mvd.tracing.InMemorySpanExporter;
+import org.eclipse.edc.mvd.tracing.SpanExporter;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.mvd.warmup.WarmUp;
+import org.jetbrains.annotations.Nullable;
+
+import dev.failsafe.RetryPolicy;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
 
 /**
  * Provides support for reading data from an HTTP endpoint and sending data to an HTTP endpoint.
  */
-@Provides(HttpRequestParamsProvider.class)
+@Provides({ HttpRequestParamsProvider.class, TransferTracer.class, AnonymizedPayloadCache.class })
 @Extension(value = DataPlaneHttpAnonymizeExtension.NAME)
 public class DataPlaneHttpAnonymizeExtension implements ServiceExtension {
     public static final String NAME = "Data Plane HTTP Anonymize";
     private static final int DEFAULT_PART_SIZE = 5;
+    private static final String DEFAULT_PARTITION_MODE = "OFF";
+    private static final long DEFAULT_PARTITION_IN_FLIGHT_BYTES = 64 * 1024 * 1024;
+    private static final String NAME_STRATEGY_MASK = "MASK";
+    private static final String NAME_STRATEGY_PSEUDONYMIZE = "PSEUDONYMIZE";
+    private static final int DEFAULT_PSEUDONYM_CACHE_SIZE = 10_000;
+    private static final String DEFAULT_METER_MODE = "NONE";
+    private static final float DEFAULT_METER_STEP = 1f;
+    private static final float DEFAULT_METER_NOISE = 0f;
+    private static final String DEFAULT_SOURCE_RATE_LIMIT = "0";
+    private static final int DEFAULT_SOURCE_RATE_BURST = 10;
+    private static final int DEFAULT_SOURCE_RETRY_MAX = 3;
+    private static final long DEFAULT_SOURCE_RETRY_INITIAL_DELAY_MS = 1000;
+    private static final long DEFAULT_SOURCE_RETRY_MAX_DELAY_MS = 30_000;
+    private static final long DEFAULT_FAN_OUT_MAX_LAG = 8 * 1024 * 1024;
+    private static final int DEFAULT_FAN_OUT_THREADS = 32;
+    private static final int DEFAULT_RESOURCE_THREADS = 16;
+    private static final long DEFAULT_CACHE_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_WARM_UP_ITERATIONS = 0;
+    private static final long DEFAULT_ADMISSION_MAX_BYTES = 0;
+    private static final int DEFAULT_ADMISSION_MAX_TRANSFERS = 0;
+    private static final long DEFAULT_ADMISSION_PART_BYTES = 8 * 1024 * 1024;
+    private static final long DEFAULT_ADMISSION_MAX_WAIT_MS = 30_000;
+    private static final int DEFAULT_K = 0;
+    private static final int DEFAULT_K_WINDOW_SIZE = 1000;
+    private static final String DEFAULT_K_MAX_SUPPRESSION = "0.05";
+    private static final String DEFAULT_CHECKPOINT_DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "edc-anonymize-checkpoints").toString();
+    private static final String DEFAULT_TRACE_SAMPLE_RATE = "0";
+    private static final String TRACE_EXPORTER_FILE = "FILE";
+    private static final String TRACE_EXPORTER_MEMORY = "MEMORY";
+    private static final String DEFAULT_TRACE_FILE = Path.of(System.getProperty("java.io.tmpdir"), "edc-anonymize-traces.ndjson").toString();
+    private static final int DEFAULT_TRACE_CAPACITY = 10_000;
+    private static final int DEFAULT_ASYNC_MAX_REQUESTS = 128;
+    private static final int DEFAULT_ASYNC_MAX_REQUESTS_PER_HOST = 32;
+    private static final String DEFAULT_DELTA_DIRECTORY = Path.of(System.getProperty("java.io.tmpdir"), "edc-anonymize-delta").toString();
 
     @Setting
     private static final String EDC_DATAPLANE_HTTP_SINK_PARTITION_SIZE = "edc.dataplane.http.sink.partition.size";
 
+    @Setting(value = "Requests per second and upstream host issued by sources, 0 disables rate limiting")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RATE_LIMIT = "edc.dataplane.http.source.rate.limit";
+
+    @Setting(value = "Requests per upstream host that may be issued at once before the rate limit applies")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RATE_BURST = "edc.dataplane.http.source.rate.burst";
+
+    @Setting(value = "Retries of source requests answered with 429 or 503")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RETRY_MAX = "edc.dataplane.http.source.retry.max";
+
+    @Setting(value = "Back-off in milliseconds of the first source retry when the upstream sends no Retry-After")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RETRY_INITIAL_DELAY = "edc.dataplane.http.source.retry.initial.delay";
+
+    @Setting(value = "Longest delay in milliseconds a source retry waits for, longer Retry-After values fail the transfer")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RETRY_MAX_DELAY = "edc.dataplane.http.source.retry.max.delay";
+
+    @Setting(value = "Payload bytes source fetches and sink part writes may buffer at once across all transfers, 0 for unlimited")
+    private static final String EDC_DATAPLANE_HTTP_ADMISSION_MAX_BYTES = "edc.dataplane.http.admission.max.bytes";
+
+    @Setting(value = "Source fetches and sink part writes that may run at once across all transfers, 0 for unlimited")
+    private static final String EDC_DATAPLANE_HTTP_ADMISSION_MAX_TRANSFERS = "edc.dataplane.http.admission.max.transfers";
+
+    @Setting(value = "Bytes reserved for a payload whose size is not known upfront")
+    private static final String EDC_DATAPLANE_HTTP_ADMISSION_PART_BYTES = "edc.dataplane.http.admission.part.bytes";
+
+    @Setting(value = "Milliseconds a fetch or part write waits for budget before it is rejected")
+    private static final String EDC_DATAPLANE_HTTP_ADMISSION_MAX_WAIT = "edc.dataplane.http.admission.max.wait";
+
+    @Setting(value = "Enqueue source and sink requests on a dedicated OkHttp dispatcher instead of executing them on transfer threads")
+    private static final String EDC_DATAPLANE_HTTP_ASYNC_ENABLED = "edc.dataplane.http.async.enabled";
+
+    @Setting(value = "Asynchronous requests in flight at once across all transfers")
+    private static final String EDC_DATAPLANE_HTTP_ASYNC_MAX_REQUESTS = "edc.dataplane.http.async.max.requests";
+
+    @Setting(value = "Asynchronous requests in flight at once per host")
+    private static final String EDC_DATAPLANE_HTTP_ASYNC_MAX_REQUESTS_PER_HOST = "edc.dataplane.http.async.max.requests.per.host";
+
+    @Setting(value = "Adaptive sink partitioning: OFF, FLOOR or CEILING, the latter two keep the static partition size as bound")
+    private static final String EDC_DATAPLANE_HTTP_SINK_PARTITION_ADAPTIVE = "edc.dataplane.http.sink.partition.adaptive";
+
+    @Setting(value = "Target number of bytes in flight per sink transfer used by adaptive partitioning")
+    private static final String EDC_DATAPLANE_HTTP_SINK_PARTITION_IN_FLIGHT_BYTES = "edc.dataplane.http.sink.partition.inflight.bytes";
+
+    @Setting(value = "Maximum number of bytes the slowest fan-out destination may lag behind the fastest one")
+    private static final String EDC_DATAPLANE_HTTP_SINK_FANOUT_MAX_LAG = "edc.dataplane.http.sink.fanout.max.lag";
+
+    @Setting(value = "Fan-out deliveries that may run at once across all transfers, further parts wait for a free thread per destination")
+    private static final String EDC_DATAPLANE_HTTP_SINK_FANOUT_THREADS = "edc.dataplane.http.sink.fanout.threads";
+
+    @Setting(value = "Threads fetching the resources of multi-resource sources, further fetches are queued")
+    private static final String EDC_DATAPLANE_HTTP_SOURCE_RESOURCE_THREADS = "edc.dataplane.http.source.resource.threads";
+
+    @Setting(value = "Directory of the file-based sink transfer checkpoints")
+    private static final String EDC_DATAPLANE_HTTP_SINK_CHECKPOINT_DIRECTORY = "edc.dataplane.http.sink.checkpoint.directory";
+
+    @Setting(value = "Directory of the file-based delta indexes of sink destinations")
+    private static final String EDC_DATAPLANE_HTTP_SINK_DELTA_DIRECTORY = "edc.dataplane.http.sink.delta.directory";
+
+    @Setting(value = "Maximum bytes of anonymized payloads cached by content hash, 0 disables the cache")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_CACHE_SIZE = "edc.dataplane.http.anonymize.cache.size";
+
+    @Setting(value = "Replacement of personal names: MASK or PSEUDONYMIZE")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_NAME_STRATEGY = "edc.dataplane.http.anonymize.name.strategy";
+
+    @Setting(value = "Vault alias of the HMAC key used to pseudonymize names")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_PSEUDONYM_KEY_ALIAS = "edc.dataplane.http.anonymize.pseudonym.key.alias";
+
+    @Setting(value = "Number of recent name to pseudonym mappings kept in memory")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_PSEUDONYM_CACHE_SIZE = "edc.dataplane.http.anonymize.pseudonym.cache.size";
+
+    @Setting(value = "Generalization of meter series: NONE, ROUND or BUCKET")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_METER_MODE = "edc.dataplane.http.anonymize.meter.mode";
+
+    @Setting(value = "Rounding step or bucket width of meter series generalization")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_METER_STEP = "edc.dataplane.http.anonymize.meter.step";
+
+    @Setting(value = "Maximum absolute uniform noise added to meter readings, 0 disables noise")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_METER_NOISE = "edc.dataplane.http.anonymize.meter.noise";
+
+    @Setting(value = "Vault alias of the secret keying the meter noise, required when meter noise is enabled")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_METER_NOISE_KEY_ALIAS = "edc.dataplane.http.anonymize.meter.noise.key.alias";
+
+    @Setting(value = "Fraction of transfers traced per stage, between 0 and 1, 0 disables tracing")
+    private static final String EDC_DATAPLANE_HTTP_TRACE_SAMPLE_RATE = "edc.dataplane.http.trace.sample.rate";
+
+    @Setting(value = "Exporter of the spans of traced transfers: FILE or MEMORY, ignored if another extension provides a SpanExporter")
+    private static final String EDC_DATAPLANE_HTTP_TRACE_EXPORTER = "edc.dataplane.http.trace.exporter";
+
+    @Setting(value = "File the FILE exporter appends spans to as newline-delimited JSON")
+    private static final String EDC_DATAPLANE_HTTP_TRACE_FILE = "edc.dataplane.http.trace.file";
+
+    @Setting(value = "Spans queued by the FILE exporter or retained by the MEMORY exporter")
+    private static final String EDC_DATAPLANE_HTTP_TRACE_CAPACITY = "edc.dataplane.http.trace.capacity";
+
+    @Setting(value = "Minimum size of every equivalence class of address, living space and apartments, 0 disables k-anonymity")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_K = "edc.dataplane.http.anonymize.k";
+
+    @Setting(value = "Number of records generalized together for k-anonymity")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_K_WINDOW_SIZE = "edc.dataplane.http.anonymize.k.window.size";
+
+    @Setting(value = "Fraction of the records of a window that may be suppressed instead of generalizing further")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_K_MAX_SUPPRESSION = "edc.dataplane.http.anonymize.k.max.suppression";
+
+    @Setting(value = "Windows generalized in parallel per transfer")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_K_PARALLELISM = "edc.dataplane.http.anonymize.k.parallelism";
+
+    @Setting(value = "Number of synthetic payloads run through the anonymization and request paths on start, 0 disables the warm-up")
+    private static final String EDC_DATAPLANE_HTTP_ANONYMIZE_WARMUP_ITERATIONS = "edc.dataplane.http.anonymize.warmup.iterations";
+
     @Inject
     private EdcHttpClient httpClient;
 
@@ -44,6 +234,30 @@ public class DataPlaneHttpAnonymizeExtension implements ServiceExtension {
     @Inject
     private TypeManager typeManager;
 
+    @Inject(required = false)
+    private OkHttpClient okHttpClient;
+
+    @Inject(required = false)
+    private RetryPolicy<Response> retryPolicy;
+
+    @Inject(required = false)
+    private TransferCheckpointStore checkpointStore;
+
+    @Inject(required = false)
+    private DeltaIndexStore deltaIndexStore;
+
+    @Inject(required = false)
+    private SpanExporter spanExporter;
+
+    private ExecutorService fanOutExecutorService;
+    private ExecutorService resourceExecutorService;
+    private AsyncHttpExecutor asyncExecutor;
+    private AnonymizedPayloadCache anonymizedPayloadCache;
+    private Monitor monitor;
+    private SpanExporter ownSpanExporter;
+    private WarmUp warmUp;
+    private int warmUpIterations;
+
     @Override
     public String name() {
         return NAME;
@@ -51,18 +265,205 @@ public class DataPlaneHttpAnonymizeExtension implements ServiceExtension {
 
     @Override
     public void initialize(ServiceExtensionContext context) {
-        var monitor = context.getMonitor();
+        monitor = context.getMonitor();
         var sinkPartitionSize = context.getSetting(EDC_DATAPLANE_HTTP_SINK_PARTITION_SIZE, DEFAULT_PART_SIZE);
 
-        var paramsProvider = new HttpRequestParamsProviderImpl(vault, typeManager);
+        var tracer = tracer(context);
+        context.registerService(TransferTracer.class, tracer);
+
+        var paramsProvider = new HttpRequestParamsProviderImpl(vault, typeManager, tracer);
         context.registerService(HttpRequestParamsProvider.class, paramsProvider);
 
         var httpRequestFactory = new HttpRequestFactory();
 
-        var sourceFactory = new HttpDataSourceFactory(httpClient, paramsProvider, monitor, httpRequestFactory);
+        var meterSeriesPolicy = new MeterSeriesPolicy(
+                MeterSeriesPolicy.Mode.parse(context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_METER_MODE, DEFAULT_METER_MODE)),
+                Float.parseFloat(context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_METER_STEP, String.valueOf(DEFAULT_METER_STEP))),
+                Float.parseFloat(context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_METER_NOISE, String.valueOf(DEFAULT_METER_NOISE))));
+        var meterSeriesGeneralizer = MeterSeriesGeneralizer.create(meterSeriesPolicy, meterNoiseSeed(context, meterSeriesPolicy));
+        anonymizedPayloadCache = new AnonymizedPayloadCache(context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_CACHE_SIZE, DEFAULT_CACHE_SIZE));
+        context.registerService(AnonymizedPayloadCache.class, anonymizedPayloadCache);
+        var anonymizer = new BuildingAnonymizer(monitor, nameStrategy(context), meterSeriesGeneralizer, anonymizedPayloadCache);
+
+        var rateLimiter = new HostRateLimiter(
+                Double.parseDouble(context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RATE_LIMIT, DEFAULT_SOURCE_RATE_LIMIT)),
+                context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RATE_BURST, DEFAULT_SOURCE_RATE_BURST));
+        var retryPolicy = new SourceRetryPolicy(
+                context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RETRY_MAX, DEFAULT_SOURCE_RETRY_MAX),
+                Duration.ofMillis(context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RETRY_INITIAL_DELAY, DEFAULT_SOURCE_RETRY_INITIAL_DELAY_MS)),
+                Duration.ofMillis(context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RETRY_MAX_DELAY, DEFAULT_SOURCE_RETRY_MAX_DELAY_MS)));
+
+        var admission = new AdmissionController(
+                context.getSetting(EDC_DATAPLANE_HTTP_ADMISSION_MAX_BYTES, DEFAULT_ADMISSION_MAX_BYTES),
+                context.getSetting(EDC_DATAPLANE_HTTP_ADMISSION_MAX_TRANSFERS, DEFAULT_ADMISSION_MAX_TRANSFERS),
+                context.getSetting(EDC_DATAPLANE_HTTP_ADMISSION_PART_BYTES, DEFAULT_ADMISSION_PART_BYTES),
+                Duration.ofMillis(context.getSetting(EDC_DATAPLANE_HTTP_ADMISSION_MAX_WAIT, DEFAULT_ADMISSION_MAX_WAIT_MS)));
+
+        var kAnonymityPolicy = new KAnonymityPolicy(
+                context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_K, DEFAULT_K),
+                context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_K_WINDOW_SIZE, DEFAULT_K_WINDOW_SIZE),
+                Double.parseDouble(context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_K_MAX_SUPPRESSION, DEFAULT_K_MAX_SUPPRESSION)));
+        // window generalization is CPU-bound and never blocks, so it shares the common pool
+        var kAnonymizer = new WindowedKAnonymizer(kAnonymityPolicy, ForkJoinPool.commonPool(),
+                context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_K_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+
+        asyncExecutor = asyncExecutor(context);
+
+        // multi-resource fetches are read by the transfer that consumes the merged part, so they must not compete with
+        // it for the shared transfer executor
+        var resourceThreads = context.getSetting(EDC_DATAPLANE_HTTP_SOURCE_RESOURCE_THREADS, DEFAULT_RESOURCE_THREADS);
+        var resourcePool = new ThreadPoolExecutor(resourceThreads, resourceThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("anonymize-resource-"));
+        resourcePool.allowCoreThreadTimeOut(true);
+        resourceExecutorService = resourcePool;
+        var sourceFactory = new HttpDataSourceFactory(httpClient, paramsProvider, monitor, httpRequestFactory, anonymizer, rateLimiter, retryPolicy,
+                resourceExecutorService, tracer, kAnonymizer, admission, asyncExecutor);
         pipelineService.registerFactory(sourceFactory);
 
-        var sinkFactory = new HttpDataSinkFactory(httpClient, executorContainer.getExecutorService(), sinkPartitionSize, monitor, paramsProvider, httpRequestFactory);
+        if (checkpointStore == null) {
+            checkpointStore = new FileTransferCheckpointStore(Path.of(context.getSetting(EDC_DATAPLANE_HTTP_SINK_CHECKPOINT_DIRECTORY, DEFAULT_CHECKPOINT_DIRECTORY)));
+        }
+        if (deltaIndexStore == null) {
+            deltaIndexStore = new FileDeltaIndexStore(Path.of(context.getSetting(EDC_DATAPLANE_HTTP_SINK_DELTA_DIRECTORY, DEFAULT_DELTA_DIRECTORY)));
+        }
+
+        var executorService = executorContainer.getExecutorService();
+        var workers = executorService instanceof ThreadPoolExecutor pool ? pool.getMaximumPoolSize() : Runtime.getRuntime().availableProcessors();
+        var partitioner = new AdaptivePartitioner(
+                AdaptivePartitioner.Mode.parse(context.getSetting(EDC_DATAPLANE_HTTP_SINK_PARTITION_ADAPTIVE, DEFAULT_PARTITION_MODE)),
+                sinkPartitionSize, workers,
+                context.getSetting(EDC_DATAPLANE_HTTP_SINK_PARTITION_IN_FLIGHT_BYTES, DEFAULT_PARTITION_IN_FLIGHT_BYTES));
+
+        var sinkFactory = new HttpDataSinkFactory(httpClient, executorService, partitioner, monitor, paramsProvider, httpRequestFactory,
+                checkpointStore, deltaIndexStore, tracer, admission, asyncExecutor);
         pipelineService.registerFactory(sinkFactory);
+
+        // fan-out deliveries wait on the partition task that reads the source, so they get their own threads to
+        // avoid starving the shared transfer executor. The sinks only submit a part's deliveries once a thread is free
+        // for each of them, so the queue never holds a delivery that stalls its part at the lag bound.
+        var fanOutThreads = context.getSetting(EDC_DATAPLANE_HTTP_SINK_FANOUT_THREADS, DEFAULT_FAN_OUT_THREADS);
+        var fanOutPool = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory("anonymize-fan-out-"));
+        fanOutPool.allowCoreThreadTimeOut(true);
+        fanOutExecutorService = fanOutPool;
+        var fanOutMaxLag = context.getSetting(EDC_DATAPLANE_HTTP_SINK_FANOUT_MAX_LAG, DEFAULT_FAN_OUT_MAX_LAG);
+        var fanOutSinkFactory = new FanOutHttpDataSinkFactory(httpClient, executorService, fanOutExecutorService, fanOutThreads,
+                sinkPartitionSize, fanOutMaxLag, monitor, paramsProvider, httpRequestFactory, typeManager,
+                checkpointStore, tracer, admission);
+        pipelineService.registerFactory(fanOutSinkFactory);
+
+        warmUpIterations = context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_WARMUP_ITERATIONS, DEFAULT_WARM_UP_ITERATIONS);
+        warmUp = new WarmUp(monitor, anonymizer, paramsProvider, httpRequestFactory);
+    }
+
+    private @Nullable AsyncHttpExecutor asyncExecutor(ServiceExtensionContext context) {
+        if (!context.getSetting(EDC_DATAPLANE_HTTP_ASYNC_ENABLED, false)) {
+            return null;
+        }
+        if (okHttpClient == null || retryPolicy == null) {
+            monitor.warning(format("Setting %s requires the OkHttpClient and RetryPolicy services, requests are issued synchronously",
+                    EDC_DATAPLANE_HTTP_ASYNC_ENABLED));
+            return null;
+        }
+        return new AsyncHttpExecutor(okHttpClient, retryPolicy,
+                context.getSetting(EDC_DATAPLANE_HTTP_ASYNC_MAX_REQUESTS, DEFAULT_ASYNC_MAX_REQUESTS),
+                context.getSetting(EDC_DATAPLANE_HTTP_ASYNC_MAX_REQUESTS_PER_HOST, DEFAULT_ASYNC_MAX_REQUESTS_PER_HOST));
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        var count = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private TransferTracer tracer(ServiceExtensionContext context) {
+        var sampleRate = Double.parseDouble(context.getSetting(EDC_DATAPLANE_HTTP_TRACE_SAMPLE_RATE, DEFAULT_TRACE_SAMPLE_RATE));
+        if (sampleRate == 0) {
+            return TransferTracer.DISABLED;
+        }
+        if (spanExporter == null) {
+            var capacity = context.getSetting(EDC_DATAPLANE_HTTP_TRACE_CAPACITY, DEFAULT_TRACE_CAPACITY);
+            var exporter = context.getSetting(EDC_DATAPLANE_HTTP_TRACE_EXPORTER, TRACE_EXPORTER_FILE).trim().toUpperCase(Locale.ROOT);
+            ownSpanExporter = switch (exporter) {
+                case TRACE_EXPORTER_FILE -> new FileSpanExporter(Path.of(context.getSetting(EDC_DATAPLANE_HTTP_TRACE_FILE, DEFAULT_TRACE_FILE)), capacity, monitor);
+                case TRACE_EXPORTER_MEMORY -> new InMemorySpanExporter(capacity);
+                default -> throw new EdcException(format("Unknown span exporter %s", exporter));
+            };
+            return new TransferTracer(sampleRate, ownSpanExporter);
+        }
+        return new TransferTracer(sampleRate, spanExporter);
+    }
+
+    private long meterNoiseSeed(ServiceExtensionContext context, MeterSeriesPolicy policy) {
+        if (policy.noiseBound() == 0) {
+            return 0;
+        }
+        var keyAlias = context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_METER_NOISE_KEY_ALIAS, null);
+        if (keyAlias == null) {
+            // unkeyed noise can be reproduced by anyone who can guess the readings, which would undo it
+            throw new EdcException(format("Setting %s is required when meter noise is enabled", EDC_DATAPLANE_HTTP_ANONYMIZE_METER_NOISE_KEY_ALIAS));
+        }
+        var key = vault.resolveSecret(keyAlias);
+        if (key == null) {
+            throw new EdcException(format("No meter noise key found in vault with name %s", keyAlias));
+        }
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new EdcException("SHA-256 is not supported by this runtime", e);
+        }
+    }
+
+    private NameAnonymizationStrategy nameStrategy(ServiceExtensionContext context) {
+        var strategy = context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_NAME_STRATEGY, NAME_STRATEGY_MASK).trim().toUpperCase(Locale.ROOT);
+        return switch (strategy) {
+            case NAME_STRATEGY_MASK -> new MaskingStrategy();
+            case NAME_STRATEGY_PSEUDONYMIZE -> {
+                var keyAlias = context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_PSEUDONYM_KEY_ALIAS, null);
+                if (keyAlias == null) {
+                    throw new EdcException(format("Setting %s is required to pseudonymize names", EDC_DATAPLANE_HTTP_ANONYMIZE_PSEUDONYM_KEY_ALIAS));
+                }
+                var key = vault.resolveSecret(keyAlias);
+                if (key == null) {
+                    throw new EdcException(format("No pseudonymization key found in vault with name %s", keyAlias));
+                }
+                yield new HmacPseudonymizationStrategy(keyAlias, key.getBytes(StandardCharsets.UTF_8),
+                        context.getSetting(EDC_DATAPLANE_HTTP_ANONYMIZE_PSEUDONYM_CACHE_SIZE, DEFAULT_PSEUDONYM_CACHE_SIZE));
+            }
+            default -> throw new EdcException(format("Unknown name anonymization strategy %s", strategy));
+        };
+    }
+
+    @Override
+    public void start() {
+        if (warmUpIterations > 0) {
+            var thread = new Thread(() -> warmUp.run(warmUpIterations), "anonymize-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (anonymizedPayloadCache != null && anonymizedPayloadCache.isEnabled()) {
+            var stats = anonymizedPayloadCache.stats();
+            monitor.info(format("Anonymized payload cache: %s hits, %s misses, %s evictions, hit ratio %.2f, %s bytes saved",
+                    stats.hits(), stats.misses(), stats.evictions(), stats.hitRatio(), stats.bytesSaved()));
+        }
+        if (fanOutExecutorService != null) {
+            fanOutExecutorService.shutdownNow();
+        }
+        if (resourceExecutorService != null) {
+            resourceExecutorService.shutdownNow();
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+        if (ownSpanExporter != null) {
+            ownSpanExporter.close();
+        }
     }
 }
@@ -0,0 +1,110 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of anonymized payloads keyed by the content hash of the raw payload and the anonymization plan.
+ * <p>
+ * Entries are weighted by their size in bytes and the least recently used ones are evicted once the total weight
+ * exceeds the configured maximum. A maximum of 0 disables caching. The counters can be read at any time through
+ * {@link #stats()}; the extension registers the cache as a service for that purpose.
+ */
+public class AnonymizedPayloadCache {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+
+    public AnonymizedPayloadCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Returns the cached anonymized payload.
+     *
+     * @param key       the content hash and plan version
+     * @param rawLength the length of the raw payload, counted as saved on a hit
+     * @return the anonymized payload, null on a miss.
+     */
+    public @Nullable byte[] get(String key, long rawLength) {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        byte[] value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            bytesSaved.add(rawLength);
+        }
+        return value;
+    }
+
+    /**
+     * Caches an anonymized payload. Payloads heavier than the whole cache are ignored.
+     *
+     * @param key   the content hash and plan version
+     * @param value the anonymized payload, must not be modified afterwards
+     */
+    public void put(String key, byte[] value) {
+        var entryWeight = weightOf(key, value);
+        if (entryWeight > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            var previous = entries.put(key, value);
+            weight += entryWeight - (previous == null ? 0 : weightOf(key, previous));
+            var iterator = entries.entrySet().iterator();
+            while (weight > maxBytes && iterator.hasNext()) {
+                var eldest = iterator.next();
+                weight -= weightOf(eldest.getKey(), eldest.getValue());
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), bytesSaved.sum(), entries.size(), weight);
+        }
+    }
+
+    private static long weightOf(String key, byte[] value) {
+        return ENTRY_OVERHEAD + 2L * key.length() + value.length;
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits       lookups answered from the cache
+     * @param misses     lookups that required anonymization
+     * @param evictions  payloads evicted to stay within the maximum
+     * @param bytesSaved raw payload bytes that did not have to be anonymized
+     * @param entries    number of cached payloads
+     * @param weight     approximate memory held by the cache in bytes
+     */
+    public record Stats(long hits, long misses, long evictions, long bytesSaved, long entries, long weight) {
+
+        public double hitRatio() {
+            var lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.eclipse.edc.mvd.model.Building;
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Anonymizes {@link Building} JSON payloads record by record: replaces personal names for data trustees that require it
+ * using the configured {@link NameAnonymizationStrategy} and generalizes the meter series. Results are cached by the
+ * content hash of the raw payload.
+ */
+public class BuildingAnonymizer {
+
+    private static final List<String> PROVIDERS_TO_ANONYMIZE = List.of("aggregationProvider");
+
+    private final Gson gson = new Gson();
+    private final Monitor monitor;
+    private final NameAnonymizationStrategy nameStrategy;
+    private final MeterSeriesGeneralizer meterSeriesGeneralizer;
+    private final AnonymizedPayloadCache cache;
+
+    public BuildingAnonymizer(Monitor monitor, NameAnonymizationStrategy nameStrategy, MeterSeriesGeneralizer meterSeriesGeneralizer,
+                              AnonymizedPayloadCache cache) {
+        this.monitor = monitor;
+        this.nameStrategy = nameStrategy;
+        this.meterSeriesGeneralizer = meterSeriesGeneralizer;
+        this.cache = cache;
+    }
+
+    /**
+     * Identifies the anonymization rules applied by this instance. Payloads anonymized under the same plan version are
+     * interchangeable.
+     *
+     * @return the plan version.
+     */
+    public String planVersion() {
+        return "trustees=" + PROVIDERS_TO_ANONYMIZE + ";names=" + nameStrategy.planVersion() + ";meter=" + meterSeriesGeneralizer.policy();
+    }
+
+    /**
+     * Creates an anonymizer applying the same plan that caches its results in the given cache instead, and whose name
+     * strategy remembers names separately from this one's.
+     *
+     * @param cache the cache of the new anonymizer
+     * @return the anonymizer.
+     */
+    public BuildingAnonymizer withSeparateCaches(AnonymizedPayloadCache cache) {
+        return new BuildingAnonymizer(monitor, nameStrategy.withSeparateCache(), meterSeriesGeneralizer, cache);
+    }
+
+    /**
+     * Reads and anonymizes the given UTF-8 body.
+     *
+     * @param body the response body, closed when read
+     * @return the anonymized body as UTF-8.
+     * @throws IOException if reading the body fails.
+     */
+    public byte[] anonymize(InputStream body) throws IOException {
+        return anonymize(body, UTF_8);
+    }
+
+    /**
+     * Reads and anonymizes the given body. The content hash is computed while reading, so payloads anonymized under
+     * the same plan before are answered from the cache without being parsed again.
+     *
+     * @param body    the response body, closed when read
+     * @param charset the charset of the body, e.g. from its {@code Content-Type}
+     * @return the anonymized body as UTF-8.
+     * @throws IOException  if reading the body fails.
+     * @throws EdcException if the body is not building JSON.
+     */
+    public byte[] anonymize(InputStream body, Charset charset) throws IOException {
+        if (!cache.isEnabled()) {
+            try (body) {
+                return anonymize(new String(body.readAllBytes(), charset)).getBytes(UTF_8);
+            }
+        }
+        var digest = sha256();
+        byte[] raw;
+        try (var in = new DigestInputStream(body, digest)) {
+            raw = in.readAllBytes();
+        }
+        // the same bytes decode to different documents under different charsets
+        var key = HexFormat.of().formatHex(digest.digest()) + '|' + charset.name() + '|' + planVersion();
+        var cached = cache.get(key, raw.length);
+        if (cached != null) {
+            return cached;
+        }
+        var anonymized = anonymize(new String(raw, charset)).getBytes(UTF_8);
+        cache.put(key, anonymized);
+        return anonymized;
+    }
+
+    /**
+     * Anonymizes the given body, which holds a single building, an array of buildings or newline-delimited buildings.
+     * Each record is anonymized and the framing is kept. Blank bodies are returned unchanged.
+     *
+     * @param bodyAsString the response body
+     * @return the anonymized body.
+     * @throws EdcException if the body is not building JSON, since it could not be released without its names.
+     */
+    public String anonymize(String bodyAsString) {
+        if (bodyAsString.isBlank()) {
+            return bodyAsString;
+        }
+        var records = new ArrayList<JsonElement>();
+        try (var reader = new JsonReader(new StringReader(bodyAsString))) {
+            reader.setLenient(true);
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    var array = new JsonArray();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        array.add(anonymizeRecord(reader));
+                    }
+                    reader.endArray();
+                    records.add(array);
+                } else {
+                    records.add(anonymizeRecord(reader));
+                }
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new EdcException("Payload is not building JSON and cannot be anonymized", e);
+        }
+        // several top-level values are newline-delimited records; like a single one, the last line has no terminator, so
+        // that bodies merged into NDJSON by a multi-resource source do not get empty lines
+        var anonymized = new StringJoiner("\n");
+        for (var record : records) {
+            anonymized.add(gson.toJson(record));
+        }
+        return anonymized.toString();
+    }
+
+    private JsonElement anonymizeRecord(JsonReader reader) {
+        Building building = gson.fromJson(reader, Building.class);
+        if (building == null) {
+            return JsonNull.INSTANCE;
+        }
+        // Perform anonymization only if the data trustee is in the list of providers to anonymize.
+        if (building.getDataTrustee() != null && PROVIDERS_TO_ANONYMIZE.contains(building.getDataTrustee())) {
+            building.setFirstName(nameStrategy.anonymize(building.getFirstName()));
+            building.setLastName(nameStrategy.anonymize(building.getLastName()));
+        }
+        meterSeriesGeneralizer.generalize(building.getWarmthTotal());
+        meterSeriesGeneralizer.generalize(building.getWarmWaterTotal());
+        return gson.toJsonTree(building);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this runtime", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Replaces names with keyed, deterministic pseudonyms: the same name always maps to the same pseudonym under the same
+ * key, so records stay linkable, while pseudonyms have a fixed length and do not leak the length of the name.
+ * <p>
+ * Pseudonyms are the first 128 bits of the HMAC-SHA256 of the name, Base64url encoded. {@link Mac} instances are not
+ * thread-safe and costly to initialize, so one is kept per thread. Recently pseudonymized names are kept in a bounded
+ * LRU map to avoid the MAC computation for names that repeat across records.
+ */
+public class HmacPseudonymizationStrategy implements NameAnonymizationStrategy {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PSEUDONYM_BYTES = 16;
+
+    private final String keyAlias;
+    private final SecretKeySpec keySpec;
+    private final int cacheSize;
+    private final ThreadLocal<Mac> macs;
+    private final Map<String, String> recent;
+
+    /**
+     * Creates the strategy.
+     *
+     * @param keyAlias  the vault alias of the key, part of the plan version
+     * @param key       the secret key
+     * @param cacheSize the number of recent name to pseudonym mappings to keep, 0 disables the cache
+     */
+    public HmacPseudonymizationStrategy(String keyAlias, byte[] key, int cacheSize) {
+        this(keyAlias, new SecretKeySpec(Arrays.copyOf(key, key.length), ALGORITHM), cacheSize);
+        // fail fast on an unusable key instead of on the first transfer
+        createMac(keySpec);
+    }
+
+    private HmacPseudonymizationStrategy(String keyAlias, SecretKeySpec keySpec, int cacheSize) {
+        this.keyAlias = keyAlias;
+        this.keySpec = keySpec;
+        this.cacheSize = cacheSize;
+        this.macs = ThreadLocal.withInitial(() -> createMac(keySpec));
+        this.recent = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public @Nullable String anonymize(@Nullable String name) {
+        if (name == null) {
+            return null;
+        }
+        synchronized (recent) {
+            var pseudonym = recent.get(name);
+            if (pseudonym != null) {
+                return pseudonym;
+            }
+        }
+        var pseudonym = pseudonymize(name);
+        synchronized (recent) {
+            recent.put(name, pseudonym);
+        }
+        return pseudonym;
+    }
+
+    @Override
+    public String planVersion() {
+        return "hmac:" + keyAlias;
+    }
+
+    @Override
+    public NameAnonymizationStrategy withSeparateCache() {
+        return new HmacPseudonymizationStrategy(keyAlias, keySpec, cacheSize);
+    }
+
+    private String pseudonymize(String name) {
+        var mac = macs.get().doFinal(name.getBytes(UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(mac, PSEUDONYM_BYTES));
+    }
+
+    private static Mac createMac(SecretKeySpec keySpec) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Cannot initialize " + ALGORITHM + " for pseudonymization", e);
+        }
+    }
+}
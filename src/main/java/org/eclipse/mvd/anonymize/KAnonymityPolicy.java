@@ -0,0 +1,32 @@
+package org.eclipse.edc.mvd.anonymize;
+
+/**
+ * Describes the k-anonymity generalization applied to multi-record payloads.
+ *
+ * @param k              the minimum size of every equivalence class of quasi-identifiers, 0 or 1 disables the
+ *                       generalization
+ * @param windowSize     the number of records generalized together
+ * @param maxSuppression the fraction of records of a window that may be suppressed instead of generalizing further
+ */
+public record KAnonymityPolicy(int k, int windowSize, double maxSuppression) {
+
+    public KAnonymityPolicy {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (windowSize < Math.max(1, k)) {
+            throw new IllegalArgumentException("Window size must be at least k: " + windowSize);
+        }
+        if (!(maxSuppression >= 0 && maxSuppression <= 1)) {
+            throw new IllegalArgumentException("Maximum suppression must be between 0 and 1: " + maxSuppression);
+        }
+    }
+
+    public boolean isEnabled() {
+        return k > 1;
+    }
+
+    public KAnonymityPolicy withK(int k) {
+        return new KAnonymityPolicy(k, Math.max(windowSize, k), maxSuppression);
+    }
+}
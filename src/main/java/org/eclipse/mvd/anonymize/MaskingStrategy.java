@@ -0,0 +1,19 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replaces every character of a name with {@code *}.
+ */
+public class MaskingStrategy implements NameAnonymizationStrategy {
+
+    @Override
+    public @Nullable String anonymize(@Nullable String name) {
+        return name == null ? null : "*".repeat(name.length());
+    }
+
+    @Override
+    public String planVersion() {
+        return "mask";
+    }
+}
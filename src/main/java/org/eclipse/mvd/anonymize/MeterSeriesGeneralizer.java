@@ -0,0 +1,40 @@
+package org.eclipse.edc.mvd.anonymize;
+
+/**
+ * Generalizes meter series in place according to a {@link MeterSeriesPolicy}.
+ */
+public interface MeterSeriesGeneralizer {
+
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Generalizes the given series in place.
+     *
+     * @param series the meter readings, may be null
+     */
+    void generalize(float[] series);
+
+    /**
+     * The policy applied by this generalizer.
+     */
+    MeterSeriesPolicy policy();
+
+    /**
+     * Creates a generalizer for the policy, backed by the Vector API when the {@code jdk.incubator.vector} module
+     * has been added to the runtime and by a scalar loop otherwise. Both deliver the same values.
+     *
+     * @param policy    the generalization policy
+     * @param noiseSeed keys the noise, so that it cannot be reproduced without knowing the seed
+     * @return the generalizer.
+     */
+    static MeterSeriesGeneralizer create(MeterSeriesPolicy policy, long noiseSeed) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return new VectorMeterSeriesGeneralizer(policy, noiseSeed);
+            } catch (LinkageError e) {
+                // fall through to the scalar implementation
+            }
+        }
+        return new ScalarMeterSeriesGeneralizer(policy, noiseSeed);
+    }
+}
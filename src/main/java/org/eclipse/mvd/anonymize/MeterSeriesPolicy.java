@@ -0,0 +1,50 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import java.util.Locale;
+
+/**
+ * Describes how meter series (e.g. {@code warmthTotal}) are generalized before release.
+ *
+ * @param mode       the quantization applied to each reading
+ * @param step       the rounding step or bucket width, must be positive unless mode is {@link Mode#NONE}
+ * @param noiseBound the maximum absolute uniform noise added to each reading before quantization, 0 disables noise
+ */
+public record MeterSeriesPolicy(Mode mode, float step, float noiseBound) {
+
+    public static final MeterSeriesPolicy NONE = new MeterSeriesPolicy(Mode.NONE, 1f, 0f);
+
+    public MeterSeriesPolicy {
+        if (mode != Mode.NONE && !(step > 0)) {
+            throw new IllegalArgumentException("Meter series step must be positive: " + step);
+        }
+        if (!(noiseBound >= 0)) {
+            throw new IllegalArgumentException("Meter series noise bound must not be negative: " + noiseBound);
+        }
+    }
+
+    /**
+     * Whether applying this policy leaves a series untouched.
+     */
+    public boolean isIdentity() {
+        return mode == Mode.NONE && noiseBound == 0;
+    }
+
+    public enum Mode {
+        /**
+         * Readings are not quantized.
+         */
+        NONE,
+        /**
+         * Readings are rounded to the nearest multiple of the step.
+         */
+        ROUND,
+        /**
+         * Readings are replaced by the lower bound of the bucket of width step they fall into.
+         */
+        BUCKET;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Replaces personal names such as {@code firstName} and {@code lastName} of a {@link org.eclipse.edc.mvd.model.Building}.
+ */
+public interface NameAnonymizationStrategy {
+
+    /**
+     * Anonymizes a name.
+     *
+     * @param name the name, may be null
+     * @return the replacement, null if the name is null.
+     */
+    @Nullable
+    String anonymize(@Nullable String name);
+
+    /**
+     * Identifies the strategy and its configuration, so results of different configurations are never mixed up.
+     */
+    String planVersion();
+
+    /**
+     * Creates a strategy with the same configuration that remembers names separately, e.g. for the synthetic names of
+     * a warm-up, which would otherwise displace the names of live transfers. Strategies without a cache return
+     * themselves.
+     *
+     * @return the strategy.
+     */
+    default NameAnonymizationStrategy withSeparateCache() {
+        return this;
+    }
+}
@@ -0,0 +1,81 @@
+package org.eclipse.edc.mvd.anonymize;
+
+/**
+ * Generalizes meter series element by element.
+ * <p>
+ * The noise is derived from the seed, the original series and the position of each reading, so the same series is
+ * always generalized to the same values. Transfers that are resumed or compared against an earlier delivery therefore
+ * see identical output for unchanged input, while different series receive independent noise.
+ */
+class ScalarMeterSeriesGeneralizer implements MeterSeriesGeneralizer {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final float UNIT = 0x1.0p-24f;
+
+    private final MeterSeriesPolicy policy;
+    private final long noiseSeed;
+
+    ScalarMeterSeriesGeneralizer(MeterSeriesPolicy policy, long noiseSeed) {
+        this.policy = policy;
+        this.noiseSeed = noiseSeed;
+    }
+
+    @Override
+    public MeterSeriesPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public void generalize(float[] series) {
+        if (series == null || policy.isIdentity()) {
+            return;
+        }
+        var noiseBound = policy.noiseBound();
+        var step = policy.step();
+        var inverseStep = 1f / step;
+        var noiseBase = noiseBound > 0 ? noiseBase(noiseSeed, series) : 0;
+        for (var i = 0; i < series.length; i++) {
+            var value = series[i];
+            if (noiseBound > 0) {
+                value += noise(noiseBase, i, noiseBound);
+            }
+            series[i] = quantize(policy.mode(), value, step, inverseStep);
+        }
+    }
+
+    static float quantize(MeterSeriesPolicy.Mode mode, float value, float step, float inverseStep) {
+        return switch (mode) {
+            case NONE -> value;
+            case ROUND -> (float) Math.floor(value * inverseStep + 0.5f) * step;
+            case BUCKET -> (float) Math.floor(value * inverseStep) * step;
+        };
+    }
+
+    /**
+     * Keys the noise of a series, computed from the original readings before they are modified.
+     */
+    static long noiseBase(long noiseSeed, float[] series) {
+        var hash = mix(noiseSeed + GOLDEN_GAMMA);
+        for (var value : series) {
+            hash = mix(hash ^ Float.floatToIntBits(value));
+        }
+        return hash;
+    }
+
+    /**
+     * Uniform noise in {@code [-bound, bound)} for the reading at the index.
+     */
+    static float noise(long base, int index, float bound) {
+        var unit = (mix(base + (index + 1L) * GOLDEN_GAMMA) >>> 40) * UNIT;
+        return (unit * 2f - 1f) * bound;
+    }
+
+    /**
+     * The finalizer of SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
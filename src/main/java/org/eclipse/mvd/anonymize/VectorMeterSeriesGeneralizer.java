@@ -0,0 +1,81 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Generalizes meter series with the Vector API, processing {@link FloatVector#SPECIES_PREFERRED} lanes per step.
+ * <p>
+ * The noise is the same as that of {@link ScalarMeterSeriesGeneralizer}, so both implementations deliver identical
+ * values for a series. The Vector API has no floor operation, so floor is computed by truncating through an int
+ * conversion and correcting negative values. Magnitudes of 2^23 and above are integral already and are passed through
+ * to avoid int overflow; {@code VectorMeterSeriesGeneralizerTest} checks the emulation against the scalar loop.
+ */
+class VectorMeterSeriesGeneralizer implements MeterSeriesGeneralizer {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final float INTEGRAL_THRESHOLD = 0x1p23f;
+
+    private final MeterSeriesPolicy policy;
+    private final long noiseSeed;
+
+    VectorMeterSeriesGeneralizer(MeterSeriesPolicy policy, long noiseSeed) {
+        this.policy = policy;
+        this.noiseSeed = noiseSeed;
+    }
+
+    @Override
+    public MeterSeriesPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public void generalize(float[] series) {
+        if (series == null || policy.isIdentity()) {
+            return;
+        }
+        var noise = policy.noiseBound() > 0 ? noise(series, policy.noiseBound()) : null;
+        var step = policy.step();
+        var inverseStep = 1f / step;
+        var mode = policy.mode();
+        var upperBound = SPECIES.loopBound(series.length);
+        var i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            var value = FloatVector.fromArray(SPECIES, series, i);
+            if (noise != null) {
+                value = value.add(FloatVector.fromArray(SPECIES, noise, i));
+            }
+            var result = switch (mode) {
+                case NONE -> value;
+                case ROUND -> floor(value.mul(inverseStep).add(0.5f)).mul(step);
+                case BUCKET -> floor(value.mul(inverseStep)).mul(step);
+            };
+            result.intoArray(series, i);
+        }
+        for (; i < series.length; i++) {
+            var value = noise != null ? series[i] + noise[i] : series[i];
+            series[i] = ScalarMeterSeriesGeneralizer.quantize(mode, value, step, inverseStep);
+        }
+    }
+
+    private static FloatVector floor(FloatVector value) {
+        var truncated = (FloatVector) value.convert(VectorOperators.F2I, 0).convert(VectorOperators.I2F, 0);
+        // truncation rounds towards zero, so negative non-integral values end up one too high
+        truncated = truncated.sub(1f, truncated.compare(VectorOperators.GT, value));
+        // zeros are passed through as well, so that -0 keeps its sign like in Math.floor
+        var passThrough = value.abs().compare(VectorOperators.GE, INTEGRAL_THRESHOLD)
+                .or(value.test(VectorOperators.IS_NAN))
+                .or(value.compare(VectorOperators.EQ, 0f));
+        return truncated.blend(value, passThrough);
+    }
+
+    private float[] noise(float[] series, float bound) {
+        var base = ScalarMeterSeriesGeneralizer.noiseBase(noiseSeed, series);
+        var noise = new float[series.length];
+        for (var i = 0; i < noise.length; i++) {
+            noise[i] = ScalarMeterSeriesGeneralizer.noise(base, i, bound);
+        }
+        return noise;
+    }
+}
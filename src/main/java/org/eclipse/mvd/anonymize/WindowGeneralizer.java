@@ -0,0 +1,215 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Generalizes the quasi-identifiers of one window of building records until every equivalence class holds at least
+ * k records or the remaining outliers may be suppressed.
+ * <p>
+ * Each quasi-identifier has a hierarchy of levels, from the exact value to fully suppressed:
+ * <ul>
+ *     <li>{@code address}: the address, its postal code, the postal code with 1 to 4 trailing digits masked, {@code *}</li>
+ *     <li>{@code livingSpace}: the value, ranges of 10, 25, 50 and 100 square metres, {@code *}</li>
+ *     <li>{@code apartments}: the count, ranges of 2, 5 and 10, {@code *}</li>
+ * </ul>
+ * Starting from the exact values, the quasi-identifier whose next level leaves the fewest records in too small classes
+ * is raised, preferring the least generalized one on a tie. Generalized numbers are replaced by the lower bound of
+ * their range and the range is added as {@code livingSpaceRange} or {@code apartmentsRange}.
+ */
+final class WindowGeneralizer {
+
+    private static final String ADDRESS = "address";
+    private static final String LIVING_SPACE = "livingSpace";
+    private static final String APARTMENTS = "apartments";
+    private static final String RANGE_SUFFIX = "Range";
+    private static final String SUPPRESSED = "*";
+    private static final Pattern POSTAL_CODE = Pattern.compile("\\b(\\d{5})\\b");
+    private static final int POSTAL_CODE_LENGTH = 5;
+    private static final int ADDRESS_LEVELS = POSTAL_CODE_LENGTH + 2;
+    private static final double[] LIVING_SPACE_WIDTHS = { 0, 10, 25, 50, 100, Double.POSITIVE_INFINITY };
+    private static final double[] APARTMENT_WIDTHS = { 0, 2, 5, 10, Double.POSITIVE_INFINITY };
+    private static final int[] MAX_LEVELS = { ADDRESS_LEVELS - 1, LIVING_SPACE_WIDTHS.length - 1, APARTMENT_WIDTHS.length - 1 };
+
+    private final KAnonymityPolicy policy;
+
+    WindowGeneralizer(KAnonymityPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Generalizes a window. Elements that are not JSON objects are passed on unchanged.
+     *
+     * @param window the records, in order
+     * @return the generalized records without the suppressed ones, in order.
+     */
+    List<JsonElement> generalize(List<JsonElement> window) {
+        var records = new ArrayList<Record>(window.size());
+        for (var element : window) {
+            if (element.isJsonObject()) {
+                records.add(new Record(element.getAsJsonObject()));
+            }
+        }
+        var levels = new int[MAX_LEVELS.length];
+        var allowed = (long) Math.floor(policy.maxSuppression() * records.size());
+        var suppressed = suppressed(records, levels);
+        while (suppressed > allowed) {
+            var best = -1;
+            var bestSuppressed = Long.MAX_VALUE;
+            var bestLoss = Double.MAX_VALUE;
+            for (var dimension = 0; dimension < levels.length; dimension++) {
+                if (levels[dimension] == MAX_LEVELS[dimension]) {
+                    continue;
+                }
+                levels[dimension]++;
+                var candidate = suppressed(records, levels);
+                var loss = loss(levels);
+                if (candidate < bestSuppressed || candidate == bestSuppressed && loss < bestLoss) {
+                    best = dimension;
+                    bestSuppressed = candidate;
+                    bestLoss = loss;
+                }
+                levels[dimension]--;
+            }
+            if (best == -1) {
+                break;
+            }
+            levels[best]++;
+            suppressed = bestSuppressed;
+        }
+
+        var classSizes = classSizes(records, levels);
+        var result = new ArrayList<JsonElement>(window.size());
+        var next = 0;
+        for (var element : window) {
+            if (!element.isJsonObject()) {
+                result.add(element);
+                continue;
+            }
+            var record = records.get(next++);
+            if (classSizes.get(record.key(levels)) >= policy.k()) {
+                result.add(record.generalized(levels));
+            }
+        }
+        return result;
+    }
+
+    private long suppressed(List<Record> records, int[] levels) {
+        return classSizes(records, levels).values().stream()
+                .filter(size -> size < policy.k())
+                .mapToLong(Integer::longValue)
+                .sum();
+    }
+
+    private static Map<String, Integer> classSizes(List<Record> records, int[] levels) {
+        var sizes = new HashMap<String, Integer>();
+        for (var record : records) {
+            sizes.merge(record.key(levels), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    private static double loss(int[] levels) {
+        var loss = 0d;
+        for (var dimension = 0; dimension < levels.length; dimension++) {
+            loss += (double) levels[dimension] / MAX_LEVELS[dimension];
+        }
+        return loss;
+    }
+
+    /**
+     * A record with the values of its quasi-identifiers precomputed for every level.
+     */
+    private static final class Record {
+        private final JsonObject object;
+        private final Double livingSpace;
+        private final Double apartments;
+        private final String[][] values = new String[MAX_LEVELS.length][];
+
+        Record(JsonObject object) {
+            this.object = object;
+            this.livingSpace = number(object, LIVING_SPACE);
+            this.apartments = number(object, APARTMENTS);
+            values[0] = addressLevels(string(object, ADDRESS));
+            values[1] = rangeLevels(livingSpace, LIVING_SPACE_WIDTHS);
+            values[2] = rangeLevels(apartments, APARTMENT_WIDTHS);
+        }
+
+        String key(int[] levels) {
+            return values[0][levels[0]] + '\u0000' + values[1][levels[1]] + '\u0000' + values[2][levels[2]];
+        }
+
+        JsonObject generalized(int[] levels) {
+            if (levels[0] == 0 && levels[1] == 0 && levels[2] == 0) {
+                return object;
+            }
+            var copy = object.deepCopy();
+            if (levels[0] > 0) {
+                copy.addProperty(ADDRESS, values[0][levels[0]]);
+            }
+            generalizeRange(copy, LIVING_SPACE, livingSpace, LIVING_SPACE_WIDTHS, levels[1], values[1][levels[1]]);
+            generalizeRange(copy, APARTMENTS, apartments, APARTMENT_WIDTHS, levels[2], values[2][levels[2]]);
+            return copy;
+        }
+
+        private static void generalizeRange(JsonObject copy, String name, Double value, double[] widths, int level, String range) {
+            if (level == 0) {
+                return;
+            }
+            copy.addProperty(name + RANGE_SUFFIX, range);
+            if (SUPPRESSED.equals(range)) {
+                copy.remove(name);
+            } else {
+                copy.add(name, new JsonPrimitive(lowerBound(value, widths[level])));
+            }
+        }
+
+        private static String[] addressLevels(String address) {
+            var levels = new String[ADDRESS_LEVELS];
+            levels[0] = String.valueOf(address);
+            var matcher = address == null ? null : POSTAL_CODE.matcher(address);
+            var postalCode = matcher != null && matcher.find() ? matcher.group(1) : null;
+            for (var level = 1; level < ADDRESS_LEVELS - 1; level++) {
+                var digits = POSTAL_CODE_LENGTH + 1 - level;
+                levels[level] = postalCode == null ? SUPPRESSED : postalCode.substring(0, digits) + SUPPRESSED.repeat(POSTAL_CODE_LENGTH - digits);
+            }
+            levels[ADDRESS_LEVELS - 1] = SUPPRESSED;
+            return levels;
+        }
+
+        private static String[] rangeLevels(Double value, double[] widths) {
+            var levels = new String[widths.length];
+            levels[0] = String.valueOf(value);
+            for (var level = 1; level < widths.length; level++) {
+                if (value == null || Double.isInfinite(widths[level])) {
+                    levels[level] = SUPPRESSED;
+                } else {
+                    var lower = lowerBound(value, widths[level]);
+                    levels[level] = lower + "-" + (lower + (long) widths[level]);
+                }
+            }
+            return levels;
+        }
+
+        private static long lowerBound(double value, double width) {
+            return (long) (Math.floor(value / width) * width);
+        }
+
+        private static String string(JsonObject object, String name) {
+            var value = object.get(name);
+            return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+        }
+
+        private static Double number(JsonObject object, String name) {
+            var value = object.get(name);
+            return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsDouble() : null;
+        }
+    }
+}
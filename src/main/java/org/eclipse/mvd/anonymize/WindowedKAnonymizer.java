@@ -0,0 +1,232 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streams a JSON payload holding a single building, an array of buildings or newline-delimited buildings through the
+ * k-anonymity generalization of {@link WindowGeneralizer}, one window of {@link KAnonymityPolicy#windowSize()} records
+ * at a time.
+ * <p>
+ * Windows are read on the consuming thread and generalized on the executor, at most {@code parallelism} at once, so
+ * memory use is bounded by the window size and the parallelism rather than the payload size. A trailing window smaller
+ * than k is generalized together with the window before it. Records are emitted in input order and keep the framing of
+ * the payload: a JSON array when it starts with one, newline-delimited JSON otherwise.
+ */
+public class WindowedKAnonymizer {
+
+    private final KAnonymityPolicy policy;
+    private final WindowGeneralizer generalizer;
+    private final Executor executor;
+    private final int parallelism;
+
+    public WindowedKAnonymizer(KAnonymityPolicy policy, Executor executor, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.policy = policy;
+        this.generalizer = new WindowGeneralizer(policy);
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    public KAnonymityPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns an instance enforcing a different k, e.g. configured for a single asset.
+     */
+    public WindowedKAnonymizer withK(int k) {
+        return k == policy.k() ? this : new WindowedKAnonymizer(policy.withK(k), executor, parallelism);
+    }
+
+    /**
+     * Generalizes a payload lazily while the returned stream is read.
+     *
+     * @param json the payload, closed with the returned stream
+     * @return the generalized records, framed like the payload.
+     */
+    public InputStream generalize(InputStream json) {
+        return new GeneralizedInputStream(json);
+    }
+
+    /**
+     * How the records of a payload are delimited.
+     */
+    private enum Framing {
+        JSON_ARRAY("[", ",", "", "]"),
+        NDJSON("", "", "\n", "");
+
+        private final String prefix;
+        private final String separator;
+        private final String terminator;
+        private final String suffix;
+
+        Framing(String prefix, String separator, String terminator, String suffix) {
+            this.prefix = prefix;
+            this.separator = separator;
+            this.terminator = terminator;
+            this.suffix = suffix;
+        }
+    }
+
+    private class GeneralizedInputStream extends InputStream {
+        private final JsonReader reader;
+        private final ArrayDeque<CompletableFuture<List<JsonElement>>> windows = new ArrayDeque<>();
+        private List<JsonElement> lookahead;
+        private boolean inArray;
+        private boolean first = true;
+        private boolean finished;
+        private Framing framing;
+        private boolean empty;
+        private InputStream current = InputStream.nullInputStream();
+
+        GeneralizedInputStream(InputStream json) {
+            reader = new JsonReader(new InputStreamReader(json, UTF_8));
+            reader.setLenient(true);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (true) {
+                var read = current.read(buffer, offset, length);
+                if (read != -1 || finished) {
+                    return read;
+                }
+                advance();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private void advance() throws IOException {
+            try {
+                if (framing == null) {
+                    framing = framingOf();
+                    current = new ByteArrayInputStream(framing.prefix.getBytes(UTF_8));
+                    return;
+                }
+                while (windows.size() < parallelism) {
+                    var window = nextWindow();
+                    if (window == null) {
+                        break;
+                    }
+                    windows.add(CompletableFuture.supplyAsync(() -> generalizer.generalize(window), executor));
+                }
+            } catch (JsonParseException | IllegalStateException e) {
+                throw new IOException("Payload is not building JSON", e);
+            }
+            if (windows.isEmpty()) {
+                current = new ByteArrayInputStream(framing.suffix.getBytes(UTF_8));
+                finished = true;
+                return;
+            }
+            List<JsonElement> records;
+            try {
+                records = windows.removeFirst().join();
+            } catch (CompletionException e) {
+                throw new IOException("Failed to generalize window", e.getCause());
+            }
+            var output = new StringBuilder();
+            for (var record : records) {
+                if (!first) {
+                    output.append(framing.separator);
+                }
+                output.append(record).append(framing.terminator);
+                first = false;
+            }
+            current = new ByteArrayInputStream(output.toString().getBytes(UTF_8));
+        }
+
+        /**
+         * Peeks at the start of the payload. An empty payload is treated as an empty array.
+         */
+        private Framing framingOf() throws IOException {
+            try {
+                return reader.peek() == JsonToken.BEGIN_ARRAY ? Framing.JSON_ARRAY : Framing.NDJSON;
+            } catch (EOFException e) {
+                empty = true;
+                return Framing.JSON_ARRAY;
+            }
+        }
+
+        private List<JsonElement> nextWindow() throws IOException {
+            if (lookahead == null) {
+                lookahead = readWindow();
+            }
+            var window = lookahead;
+            if (window.isEmpty()) {
+                return null;
+            }
+            lookahead = readWindow();
+            if (!lookahead.isEmpty() && lookahead.size() < policy.k()) {
+                // the payload ends with a window too small to be k-anonymous on its own
+                window.addAll(lookahead);
+                lookahead = readWindow();
+            }
+            return window;
+        }
+
+        private List<JsonElement> readWindow() throws IOException {
+            var window = new ArrayList<JsonElement>();
+            JsonElement record;
+            while (window.size() < policy.windowSize() && (record = nextRecord()) != null) {
+                window.add(record);
+            }
+            return window;
+        }
+
+        private JsonElement nextRecord() throws IOException {
+            if (empty) {
+                return null;
+            }
+            while (true) {
+                if (inArray) {
+                    if (reader.hasNext()) {
+                        return JsonParser.parseReader(reader);
+                    }
+                    reader.endArray();
+                    inArray = false;
+                    continue;
+                }
+                var token = reader.peek();
+                if (token == JsonToken.END_DOCUMENT) {
+                    return null;
+                }
+                if (token == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    inArray = true;
+                    continue;
+                }
+                return JsonParser.parseReader(reader);
+            }
+        }
+    }
+}
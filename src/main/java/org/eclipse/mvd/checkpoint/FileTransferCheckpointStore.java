@@ -0,0 +1,103 @@
+package org.eclipse.edc.mvd.checkpoint;
+
+import org.eclipse.edc.spi.EdcException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Default {@link TransferCheckpointStore} keeping one properties file per request in a local directory.
+ * <p>
+ * Each entry maps a part name to {@code <acknowledgedBytes>;<prefixDigest>} or {@code <acknowledgedBytes>;completed}.
+ * Entries written without a digest are read back with none. Files are replaced atomically, so a crash leaves either
+ * the previous or the new checkpoint behind.
+ */
+public class FileTransferCheckpointStore implements TransferCheckpointStore {
+
+    private static final String SEPARATOR = ";";
+    private static final String COMPLETED = "completed";
+
+    private final Path directory;
+
+    public FileTransferCheckpointStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to create checkpoint directory %s", directory), e);
+        }
+    }
+
+    @Override
+    public synchronized @Nullable PartCheckpoint find(String requestId, String partName) {
+        var value = load(requestId).getProperty(partName);
+        if (value == null) {
+            return null;
+        }
+        var fields = value.split(SEPARATOR, 2);
+        var acknowledgedBytes = Long.parseLong(fields[0]);
+        if (fields.length == 1) {
+            return new PartCheckpoint(acknowledgedBytes, false, null);
+        }
+        return COMPLETED.equals(fields[1])
+                ? PartCheckpoint.completed(acknowledgedBytes)
+                : PartCheckpoint.acknowledged(acknowledgedBytes, fields[1]);
+    }
+
+    @Override
+    public synchronized void save(String requestId, String partName, PartCheckpoint checkpoint) {
+        var properties = load(requestId);
+        var value = String.valueOf(checkpoint.acknowledgedBytes());
+        if (checkpoint.completed()) {
+            value += SEPARATOR + COMPLETED;
+        } else if (checkpoint.prefixDigest() != null) {
+            value += SEPARATOR + checkpoint.prefixDigest();
+        }
+        properties.setProperty(partName, value);
+        var file = fileOf(requestId);
+        try {
+            var temporary = Files.createTempFile(directory, "checkpoint", ".tmp");
+            try (var writer = Files.newBufferedWriter(temporary, UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to write checkpoint %s", file), e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(String requestId) {
+        try {
+            Files.deleteIfExists(fileOf(requestId));
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to delete checkpoint of request %s", requestId), e);
+        }
+    }
+
+    private Properties load(String requestId) {
+        var properties = new Properties();
+        var file = fileOf(requestId);
+        if (Files.exists(file)) {
+            try (var reader = Files.newBufferedReader(file, UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new EdcException(format("Failed to read checkpoint %s", file), e);
+            }
+        }
+        return properties;
+    }
+
+    private Path fileOf(String requestId) {
+        return directory.resolve(URLEncoder.encode(requestId, UTF_8) + ".properties");
+    }
+}
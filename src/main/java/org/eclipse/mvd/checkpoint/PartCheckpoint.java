@@ -0,0 +1,23 @@
+package org.eclipse.edc.mvd.checkpoint;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Delivery progress of a single part of a transfer.
+ *
+ * @param acknowledgedBytes number of bytes of the part the destination has acknowledged, -1 if the request body was
+ *                          never read
+ * @param completed         whether the part has been delivered completely
+ * @param prefixDigest      hex SHA-256 of the acknowledged bytes, null if unknown. A resumed upload only continues
+ *                          when the part still starts with these bytes.
+ */
+public record PartCheckpoint(long acknowledgedBytes, boolean completed, @Nullable String prefixDigest) {
+
+    public static PartCheckpoint acknowledged(long acknowledgedBytes, String prefixDigest) {
+        return new PartCheckpoint(acknowledgedBytes, false, prefixDigest);
+    }
+
+    public static PartCheckpoint completed(long deliveredBytes) {
+        return new PartCheckpoint(deliveredBytes, true, null);
+    }
+}
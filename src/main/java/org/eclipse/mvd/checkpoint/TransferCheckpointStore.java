@@ -0,0 +1,36 @@
+package org.eclipse.edc.mvd.checkpoint;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persists the delivery progress of sink transfers so that a retried {@code DataFlowRequest} resumes where the
+ * previous attempt stopped instead of delivering everything again.
+ */
+public interface TransferCheckpointStore {
+
+    /**
+     * Returns the checkpoint of a part.
+     *
+     * @param requestId the data flow request id
+     * @param partName  the part name
+     * @return the checkpoint, null if nothing of the part has been acknowledged yet.
+     */
+    @Nullable
+    PartCheckpoint find(String requestId, String partName);
+
+    /**
+     * Stores the checkpoint of a part, replacing any previous one.
+     *
+     * @param requestId  the data flow request id
+     * @param partName   the part name
+     * @param checkpoint the progress of the part
+     */
+    void save(String requestId, String partName, PartCheckpoint checkpoint);
+
+    /**
+     * Removes all checkpoints of a request, typically once the transfer has completed.
+     *
+     * @param requestId the data flow request id
+     */
+    void delete(String requestId);
+}
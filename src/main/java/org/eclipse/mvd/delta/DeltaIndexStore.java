@@ -0,0 +1,26 @@
+package org.eclipse.edc.mvd.delta;
+
+import java.util.Map;
+
+/**
+ * Persists the delta index of an (asset, destination) pair: the content hash of every record last delivered to the
+ * destination, keyed by record id.
+ */
+public interface DeltaIndexStore {
+
+    /**
+     * Returns the index of the last successful delta transfer.
+     *
+     * @param indexKey identifies the asset and the destination
+     * @return the content hash per record id, empty if nothing was delivered yet.
+     */
+    Map<String, Long> load(String indexKey);
+
+    /**
+     * Replaces the index once a delta transfer has delivered its records.
+     *
+     * @param indexKey identifies the asset and the destination
+     * @param index    the content hash per record id
+     */
+    void save(String indexKey, Map<String, Long> index);
+}
@@ -0,0 +1,25 @@
+package org.eclipse.edc.mvd.delta;
+
+import java.util.Locale;
+
+/**
+ * Which records a delta transfer delivers.
+ */
+public enum DeltaMode {
+    /**
+     * Every record, no index is kept.
+     */
+    OFF,
+    /**
+     * New and changed records.
+     */
+    CHANGES,
+    /**
+     * New and changed records, followed by a tombstone for every record that is no longer part of the source.
+     */
+    TOMBSTONES;
+
+    public static DeltaMode parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,180 @@
+package org.eclipse.edc.mvd.delta;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Filters the records of one transfer against the delta index of its (asset, destination) pair.
+ * <p>
+ * Records are hashed on their serialized JSON and only those whose id is new or whose hash changed are passed on.
+ * Records without an id are always passed on and never indexed. The hash covers the anonymized record including its
+ * meter series: the meter noise is derived from the original series, so an unchanged record hashes the same on every
+ * transfer, while rotating the pseudonym or noise key changes every record and delivers all of them again.
+ * <p>
+ * The updated index is staged while the parts are filtered and only written by {@link #commit()}, so a failed transfer
+ * delivers the same delta again when retried. Tombstones about to be sent are recorded as pending in the index by
+ * {@link #savePendingTombstones()}: a retry skipping the parts delivered before cannot tell which records were removed,
+ * and sends the pending tombstones instead.
+ */
+public class DeltaTransfer {
+
+    private static final String ID = "id";
+    private static final String DELETED = "deleted";
+    private static final long PENDING_TOMBSTONE = 0;
+
+    private final DeltaIndexStore store;
+    private final String indexKey;
+    private final DeltaMode mode;
+    private final Map<String, Long> previous;
+    private final Map<String, Long> staged = new ConcurrentHashMap<>();
+    private final Set<String> removed = new HashSet<>();
+    private volatile boolean complete = true;
+
+    public DeltaTransfer(DeltaIndexStore store, String indexKey, DeltaMode mode) {
+        this.store = store;
+        this.indexKey = indexKey;
+        this.mode = mode;
+        this.previous = store.load(indexKey);
+    }
+
+    /**
+     * Filters a JSON payload holding a single record, an array of records or newline-delimited records.
+     *
+     * @param json the payload, closed when read
+     * @return the new and changed records as a JSON array.
+     * @throws IOException if the payload cannot be read or is not JSON.
+     */
+    public InputStream filter(InputStream json) throws IOException {
+        var changed = new JsonArray();
+        try (var reader = new JsonReader(new InputStreamReader(json, UTF_8))) {
+            reader.setLenient(true);
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        filter(JsonParser.parseReader(reader), changed);
+                    }
+                    reader.endArray();
+                } else {
+                    filter(JsonParser.parseReader(reader), changed);
+                }
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Payload is not JSON", e);
+        }
+        return new ByteArrayInputStream(changed.toString().getBytes(UTF_8));
+    }
+
+    private void filter(JsonElement record, JsonArray changed) {
+        var id = idOf(record);
+        if (id == null) {
+            changed.add(record);
+            return;
+        }
+        var hash = hash(record.toString());
+        staged.put(id, hash);
+        if (!Long.valueOf(hash).equals(previous.get(id))) {
+            changed.add(record);
+        }
+    }
+
+    /**
+     * Marks the transfer as not having seen every record, e.g. because parts delivered by an earlier attempt were
+     * skipped. Only pending tombstones are sent then and unseen records are kept in the index.
+     */
+    public void markIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * The tombstones of the records that were delivered before but are no longer part of the source. An incomplete
+     * transfer only returns the tombstones left pending by an earlier attempt.
+     *
+     * @return a JSON array of {@code {"id": ..., "deleted": true}} objects, null if there are none or the mode does not
+     *         send tombstones.
+     */
+    public @Nullable byte[] tombstones() {
+        if (mode != DeltaMode.TOMBSTONES) {
+            return null;
+        }
+        removed.clear();
+        var tombstones = new JsonArray();
+        previous.forEach((id, hash) -> {
+            if (!staged.containsKey(id) && (complete || hash == PENDING_TOMBSTONE)) {
+                removed.add(id);
+                var tombstone = new JsonObject();
+                tombstone.addProperty(ID, id);
+                tombstone.addProperty(DELETED, true);
+                tombstones.add(tombstone);
+            }
+        });
+        return tombstones.isEmpty() ? null : tombstones.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Writes the staged index with the records returned by {@link #tombstones()} marked pending, before the tombstones
+     * are sent.
+     */
+    public void savePendingTombstones() {
+        var index = stagedIndex();
+        removed.forEach(id -> index.put(id, PENDING_TOMBSTONE));
+        store.save(indexKey, index);
+    }
+
+    /**
+     * Writes the staged index. Records removed from the source are dropped from the index only when tombstones are
+     * sent for them or the transfer saw every record.
+     */
+    public void commit() {
+        store.save(indexKey, stagedIndex());
+    }
+
+    private Map<String, Long> stagedIndex() {
+        if (complete) {
+            return new HashMap<>(staged);
+        }
+        var index = new HashMap<>(previous);
+        index.putAll(staged);
+        removed.forEach(index::remove);
+        return index;
+    }
+
+    private static @Nullable String idOf(JsonElement record) {
+        if (!record.isJsonObject()) {
+            return null;
+        }
+        var id = record.getAsJsonObject().get(ID);
+        return id != null && id.isJsonPrimitive() ? id.getAsString() : null;
+    }
+
+    private static long hash(String record) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(record.getBytes(UTF_8));
+            var hash = ByteBuffer.wrap(digest).getLong();
+            return hash == PENDING_TOMBSTONE ? 1 : hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this runtime", e);
+        }
+    }
+}
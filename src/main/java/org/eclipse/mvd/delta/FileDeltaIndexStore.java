@@ -0,0 +1,90 @@
+package org.eclipse.edc.mvd.delta;
+
+import org.eclipse.edc.spi.EdcException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Default {@link DeltaIndexStore} keeping one binary file per index key in a local directory.
+ * <p>
+ * A file holds the magic {@code BDIX}, a version byte, the entry count and the entries sorted by record id, each as
+ * modified UTF-8 id followed by the 64-bit content hash. Files are replaced atomically, so a crash leaves either the
+ * previous or the new index behind.
+ */
+public class FileDeltaIndexStore implements DeltaIndexStore {
+
+    private static final byte[] MAGIC = { 'B', 'D', 'I', 'X' };
+    private static final byte VERSION = 1;
+
+    private final Path directory;
+
+    public FileDeltaIndexStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to create delta index directory %s", directory), e);
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Long> load(String indexKey) {
+        var file = fileOf(indexKey);
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC) || in.readByte() != VERSION) {
+                throw new EdcException(format("Delta index %s has an unknown format", file));
+            }
+            var count = in.readInt();
+            var index = new HashMap<String, Long>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (var i = 0; i < count; i++) {
+                index.put(in.readUTF(), in.readLong());
+            }
+            return index;
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to read delta index %s", file), e);
+        }
+    }
+
+    @Override
+    public synchronized void save(String indexKey, Map<String, Long> index) {
+        var file = fileOf(indexKey);
+        try {
+            var temporary = Files.createTempFile(directory, "delta", ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(index.size());
+                for (var entry : new TreeMap<>(index).entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to write delta index %s", file), e);
+        }
+    }
+
+    private Path fileOf(String indexKey) {
+        return directory.resolve(URLEncoder.encode(indexKey, UTF_8) + ".idx");
+    }
+}
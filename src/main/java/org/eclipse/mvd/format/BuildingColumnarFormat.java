@@ -0,0 +1,103 @@
+package org.eclipse.edc.mvd.format;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.eclipse.edc.mvd.model.Building;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact columnar binary layout for batches of {@link Building} records, selected by setting the sink data address
+ * content type to {@link #CONTENT_TYPE}.
+ * <p>
+ * A stream is a sequence of self-contained batches of up to {@link #BATCH_SIZE} records. Each batch is laid out as
+ * <pre>
+ * magic "BLDC", version byte
+ * varint record count
+ * varint dictionary size, dictionary strings as varint length + UTF-8 bytes
+ * string columns (id, firstName, lastName, address): varint dictionary index + 1 per record, 0 for null
+ * livingSpace: float per record
+ * meterNumber: int per record
+ * warmthTotal, warmWaterTotal: varint length + 1 per record (0 for null), then all floats of the column
+ * heatedBasement: bitset of ceil(count / 8) bytes
+ * apartments: int per record
+ * string columns (certificateEndpoint, dataTrustee)
+ * </pre>
+ * Numbers are big-endian.
+ */
+public final class BuildingColumnarFormat {
+
+    public static final String CONTENT_TYPE = "application/vnd.mvd.buildings+columnar";
+    public static final int BATCH_SIZE = 4096;
+
+    static final byte[] MAGIC = { 'B', 'L', 'D', 'C' };
+    static final byte VERSION = 1;
+
+    private static final Gson GSON = new Gson();
+
+    private BuildingColumnarFormat() {
+    }
+
+    /**
+     * Whether the content type selects the columnar format.
+     *
+     * @param contentType the sink content type, may be null
+     * @return true if the payload should be transcoded.
+     */
+    public static boolean isSelectedBy(@Nullable String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(CONTENT_TYPE);
+    }
+
+    /**
+     * Transcodes a JSON payload holding a single building, an array of buildings or newline-delimited buildings into
+     * the columnar format.
+     *
+     * @param json the JSON payload, closed when read
+     * @return the columnar payload.
+     * @throws IOException if the payload cannot be read or is not building JSON.
+     */
+    public static InputStream transcode(InputStream json) throws IOException {
+        var output = new ByteArrayOutputStream();
+        var writer = new BuildingColumnarWriter(output);
+        try (var reader = new JsonReader(new InputStreamReader(json, UTF_8))) {
+            reader.setLenient(true);
+            var batch = new ArrayList<Building>(BATCH_SIZE);
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        add(batch, reader, writer);
+                    }
+                    reader.endArray();
+                } else {
+                    add(batch, reader, writer);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writer.writeBatch(batch);
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Payload is not building JSON", e);
+        }
+        return new ByteArrayInputStream(output.toByteArray());
+    }
+
+    private static void add(ArrayList<Building> batch, JsonReader reader, BuildingColumnarWriter writer) throws IOException {
+        batch.add(GSON.fromJson(reader, Building.class));
+        if (batch.size() == BATCH_SIZE) {
+            writer.writeBatch(batch);
+            batch.clear();
+        }
+    }
+}
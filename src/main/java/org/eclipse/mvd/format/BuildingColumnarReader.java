@@ -0,0 +1,140 @@
+package org.eclipse.edc.mvd.format;
+
+import org.eclipse.edc.mvd.model.Building;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads batches of {@link Building} records written by {@link BuildingColumnarWriter}.
+ */
+public class BuildingColumnarReader {
+
+    private final DataInputStream input;
+
+    public BuildingColumnarReader(InputStream input) {
+        this.input = new DataInputStream(input);
+    }
+
+    /**
+     * Reads all remaining batches.
+     *
+     * @return the records of all batches.
+     * @throws IOException if the stream is not in the columnar format.
+     */
+    public List<Building> readAll() throws IOException {
+        var buildings = new ArrayList<Building>();
+        List<Building> batch;
+        while ((batch = readBatch()) != null) {
+            buildings.addAll(batch);
+        }
+        return buildings;
+    }
+
+    /**
+     * Reads the next batch.
+     *
+     * @return the records of the batch, null at the end of the stream.
+     * @throws IOException if the stream is not in the columnar format.
+     */
+    public @Nullable List<Building> readBatch() throws IOException {
+        var magic = new byte[BuildingColumnarFormat.MAGIC.length];
+        var read = input.readNBytes(magic, 0, magic.length);
+        if (read == 0) {
+            return null;
+        }
+        if (read != magic.length || !Arrays.equals(magic, BuildingColumnarFormat.MAGIC)) {
+            throw new IOException("Not a columnar building batch");
+        }
+        var version = input.readByte();
+        if (version != BuildingColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar building batch version " + version);
+        }
+        var count = readVarInt();
+        var dictionary = new String[readVarInt()];
+        for (var i = 0; i < dictionary.length; i++) {
+            dictionary[i] = new String(input.readNBytes(readVarInt()), UTF_8);
+        }
+        var ids = readStrings(count, dictionary);
+        var firstNames = readStrings(count, dictionary);
+        var lastNames = readStrings(count, dictionary);
+        var addresses = readStrings(count, dictionary);
+        var livingSpaces = new float[count];
+        for (var i = 0; i < count; i++) {
+            livingSpaces[i] = input.readFloat();
+        }
+        var meterNumbers = readInts(count);
+        var warmthTotals = readSeries(count);
+        var warmWaterTotals = readSeries(count);
+        var heatedBasement = new byte[(count + 7) / 8];
+        input.readFully(heatedBasement);
+        var apartments = readInts(count);
+        var certificateEndpoints = readStrings(count, dictionary);
+        var dataTrustees = readStrings(count, dictionary);
+
+        var buildings = new ArrayList<Building>(count);
+        for (var i = 0; i < count; i++) {
+            buildings.add(new Building(ids[i], firstNames[i], lastNames[i], addresses[i], livingSpaces[i], meterNumbers[i],
+                    warmthTotals[i], warmWaterTotals[i], (heatedBasement[i >>> 3] & (1 << (i & 7))) != 0, apartments[i],
+                    certificateEndpoints[i], dataTrustees[i]));
+        }
+        return buildings;
+    }
+
+    private String[] readStrings(int count, String[] dictionary) throws IOException {
+        var values = new String[count];
+        for (var i = 0; i < count; i++) {
+            var index = readVarInt();
+            values[i] = index == 0 ? null : dictionary[index - 1];
+        }
+        return values;
+    }
+
+    private int[] readInts(int count) throws IOException {
+        var values = new int[count];
+        for (var i = 0; i < count; i++) {
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+
+    private float[][] readSeries(int count) throws IOException {
+        var lengths = new int[count];
+        for (var i = 0; i < count; i++) {
+            lengths[i] = readVarInt();
+        }
+        var series = new float[count][];
+        for (var i = 0; i < count; i++) {
+            if (lengths[i] > 0) {
+                series[i] = new float[lengths[i] - 1];
+                for (var j = 0; j < series[i].length; j++) {
+                    series[i][j] = input.readFloat();
+                }
+            }
+        }
+        return series;
+    }
+
+    private int readVarInt() throws IOException {
+        var value = 0;
+        for (var shift = 0; shift < 32; shift += 7) {
+            var b = input.read();
+            if (b == -1) {
+                throw new EOFException("Truncated columnar building batch");
+            }
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in columnar building batch");
+    }
+}
@@ -0,0 +1,128 @@
+package org.eclipse.edc.mvd.format;
+
+import org.eclipse.edc.mvd.model.Building;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes batches of {@link Building} records in the {@link BuildingColumnarFormat}.
+ */
+public class BuildingColumnarWriter {
+
+    private final DataOutputStream output;
+
+    public BuildingColumnarWriter(OutputStream output) {
+        this.output = new DataOutputStream(output);
+    }
+
+    /**
+     * Writes one self-contained batch.
+     *
+     * @param buildings the records of the batch
+     * @throws IOException if writing fails.
+     */
+    public void writeBatch(List<Building> buildings) throws IOException {
+        var dictionary = new Dictionary();
+        var idColumn = dictionary.encode(buildings, Building::getId);
+        var firstNameColumn = dictionary.encode(buildings, Building::getFirstName);
+        var lastNameColumn = dictionary.encode(buildings, Building::getLastName);
+        var addressColumn = dictionary.encode(buildings, Building::getAddress);
+        var certificateEndpointColumn = dictionary.encode(buildings, Building::getCertificateEndpoint);
+        var dataTrusteeColumn = dictionary.encode(buildings, Building::getDataTrustee);
+
+        output.write(BuildingColumnarFormat.MAGIC);
+        output.writeByte(BuildingColumnarFormat.VERSION);
+        writeVarInt(buildings.size());
+        writeVarInt(dictionary.values.size());
+        for (var value : dictionary.values) {
+            var bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length);
+            output.write(bytes);
+        }
+        writeIndices(idColumn);
+        writeIndices(firstNameColumn);
+        writeIndices(lastNameColumn);
+        writeIndices(addressColumn);
+        for (var building : buildings) {
+            output.writeFloat(building.getLivingSpace());
+        }
+        for (var building : buildings) {
+            output.writeInt(building.getMeterNumber());
+        }
+        writeSeries(buildings, Building::getWarmthTotal);
+        writeSeries(buildings, Building::getWarmWaterTotal);
+        var heatedBasement = new byte[(buildings.size() + 7) / 8];
+        for (var i = 0; i < buildings.size(); i++) {
+            if (buildings.get(i).isHeatedBasement()) {
+                heatedBasement[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        output.write(heatedBasement);
+        for (var building : buildings) {
+            output.writeInt(building.getApartments());
+        }
+        writeIndices(certificateEndpointColumn);
+        writeIndices(dataTrusteeColumn);
+        output.flush();
+    }
+
+    private void writeSeries(List<Building> buildings, Function<Building, float[]> column) throws IOException {
+        for (var building : buildings) {
+            var series = column.apply(building);
+            writeVarInt(series == null ? 0 : series.length + 1);
+        }
+        for (var building : buildings) {
+            var series = column.apply(building);
+            if (series != null) {
+                for (var value : series) {
+                    output.writeFloat(value);
+                }
+            }
+        }
+    }
+
+    private void writeIndices(int[] indices) throws IOException {
+        for (var index : indices) {
+            writeVarInt(index);
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            output.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Batch-wide string dictionary. Indices are shifted by one so that 0 encodes null.
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int[] encode(List<Building> buildings, Function<Building, String> column) {
+            var encoded = new int[buildings.size()];
+            for (var i = 0; i < encoded.length; i++) {
+                var value = column.apply(buildings.get(i));
+                encoded[i] = value == null ? 0 : indices.computeIfAbsent(value, this::add) + 1;
+            }
+            return encoded;
+        }
+
+        private int add(String value) {
+            values.add(value);
+            return values.size() - 1;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package org.eclipse.edc.mvd.model;
 
-import java.util.List;
-
 public class Building {
   private final String id;
   private String firstName;
@@ -9,8 +7,8 @@ public class Building {
   private final String address;
   private final float livingSpace;
   private final int meterNumber;
-  private final List<Float> warmthTotal;
-  private final List<Float> warmWaterTotal;
+  private float[] warmthTotal;
+  private float[] warmWaterTotal;
   private final boolean heatedBasement;
   private final int apartments;
   private final String certificateEndpoint;
@@ -23,8 +21,8 @@ public class Building {
       String address,
       float livingSpace,
       int meterNumber,
-      List<Float> warmthTotal,
-      List<Float> warmWaterTotal,
+      float[] warmthTotal,
+      float[] warmWaterTotal,
       boolean heatedBasement,
       int apartments,
       String certificateEndpoint,
@@ -75,14 +73,22 @@ public class Building {
     return livingSpace;
   }
 
-  public List<Float> getWarmthTotal() {
+  public float[] getWarmthTotal() {
     return warmthTotal;
   }
 
-  public List<Float> getWarmWaterTotal() {
+  public void setWarmthTotal(float[] warmthTotal) {
+    this.warmthTotal = warmthTotal;
+  }
+
+  public float[] getWarmWaterTotal() {
     return warmWaterTotal;
   }
 
+  public void setWarmWaterTotal(float[] warmWaterTotal) {
+    this.warmWaterTotal = warmWaterTotal;
+  }
+
   public boolean isHeatedBasement() {
     return heatedBasement;
   }
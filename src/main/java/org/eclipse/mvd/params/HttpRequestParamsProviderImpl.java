@@ -10,6 +10,7 @@ import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
 import org.eclipse.edc.mvd.params.decorators.BaseCommonHttpParamsDecorator;
 import org.eclipse.edc.mvd.params.decorators.BaseSinkHttpParamsDecorator;
 import org.eclipse.edc.mvd.params.decorators.BaseSourceHttpParamsDecorator;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,9 +19,11 @@ public class HttpRequestParamsProviderImpl implements HttpRequestParamsProvider
 
     private final List<HttpParamsDecorator> sourceDecorators = new ArrayList<>();
     private final List<HttpParamsDecorator> sinkDecorators = new ArrayList<>();
+    private final TransferTracer tracer;
 
-    public HttpRequestParamsProviderImpl(Vault vault, TypeManager typeManager) {
-        var commonHttpParamsDecorator = new BaseCommonHttpParamsDecorator(vault, typeManager);
+    public HttpRequestParamsProviderImpl(Vault vault, TypeManager typeManager, TransferTracer tracer) {
+        this.tracer = tracer;
+        var commonHttpParamsDecorator = new BaseCommonHttpParamsDecorator(vault, typeManager, tracer);
         registerSinkDecorator(commonHttpParamsDecorator);
         registerSourceDecorator(commonHttpParamsDecorator);
         registerSourceDecorator(new BaseSourceHttpParamsDecorator());
@@ -39,18 +42,24 @@ public class HttpRequestParamsProviderImpl implements HttpRequestParamsProvider
 
     @Override
     public HttpRequestParams provideSourceParams(DataFlowRequest request) {
-        var params = HttpRequestParams.Builder.newInstance();
-        var address = HttpDataAddress.Builder.newInstance().copyFrom(request.getSourceDataAddress()).build();
-        sourceDecorators.forEach(decorator -> decorator.decorate(request, address, params));
-        return params.build();
+        try (var span = tracer.start(request.getId(), "params.source")) {
+            var params = HttpRequestParams.Builder.newInstance();
+            var address = HttpDataAddress.Builder.newInstance().copyFrom(request.getSourceDataAddress()).build();
+            sourceDecorators.forEach(decorator -> decorator.decorate(request, address, params));
+            span.attribute("decorators", sourceDecorators.size());
+            return params.build();
+        }
     }
 
     @Override
     public HttpRequestParams provideSinkParams(DataFlowRequest request) {
-        var params = HttpRequestParams.Builder.newInstance();
-        var address = HttpDataAddress.Builder.newInstance().copyFrom(request.getDestinationDataAddress()).build();
-        sinkDecorators.forEach(decorator -> decorator.decorate(request, address, params));
-        return params.build();
+        try (var span = tracer.start(request.getId(), "params.sink")) {
+            var params = HttpRequestParams.Builder.newInstance();
+            var address = HttpDataAddress.Builder.newInstance().copyFrom(request.getDestinationDataAddress()).build();
+            sinkDecorators.forEach(decorator -> decorator.decorate(request, address, params));
+            span.attribute("decorators", sinkDecorators.size());
+            return params.build();
+        }
     }
 
 }
@@ -7,6 +7,7 @@ import org.eclipse.edc.spi.security.Vault;
 import org.eclipse.edc.spi.types.TypeManager;
 import org.eclipse.edc.spi.types.domain.HttpDataAddress;
 import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
 
 import java.util.Map;
 import java.util.Optional;
@@ -17,10 +18,12 @@ public class BaseCommonHttpParamsDecorator implements HttpParamsDecorator {
 
     private final Vault vault;
     private final TypeManager typeManager;
+    private final TransferTracer tracer;
 
-    public BaseCommonHttpParamsDecorator(Vault vault, TypeManager typeManager) {
+    public BaseCommonHttpParamsDecorator(Vault vault, TypeManager typeManager, TransferTracer tracer) {
         this.vault = vault;
         this.typeManager = typeManager;
+        this.tracer = tracer;
     }
 
     @Override
@@ -60,7 +63,11 @@ public class BaseCommonHttpParamsDecorator implements HttpParamsDecorator {
             throw new EdcException(format("DataFlowRequest %s: 'secretName' property is missing in HttpDataAddress", requestId));
         }
 
-        var value = vault.resolveSecret(secretName);
+        String value;
+        try (var span = tracer.start(requestId, "vault.lookup")) {
+            value = vault.resolveSecret(secretName);
+            span.attribute("found", value != null);
+        }
 
         return Optional.ofNullable(value)
                 .map(it -> getTokenFromJson(it, requestId).orElse(it))
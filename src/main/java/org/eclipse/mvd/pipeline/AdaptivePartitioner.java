@@ -0,0 +1,148 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the partitions of {@link HttpDataSink} transfers from the part latency, part size and part count observed on
+ * previous transfers to the same destination.
+ * <p>
+ * Partitions are sized so that the expected parts are spread over as many partition tasks as can run at once, bounded
+ * by the worker count and by how many average parts fit in the in-flight byte budget. Tiny parts are grouped until a
+ * partition task runs long enough to amortize its scheduling. Depending on the mode the configured static size is the
+ * floor or the ceiling of the result; destinations without observations get the static size.
+ * <p>
+ * Observations are kept for the {@value #MAX_DESTINATIONS} most recently used destinations.
+ */
+public class AdaptivePartitioner {
+
+    private static final double SMOOTHING = 0.2;
+    private static final long MIN_TASK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    static final int MAX_DESTINATIONS = 1024;
+
+    private final Mode mode;
+    private final int staticSize;
+    private final int workers;
+    private final long inFlightBudget;
+    private final Map<String, Observations> observations = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Observations> eldest) {
+            return size() > MAX_DESTINATIONS;
+        }
+    };
+
+    public AdaptivePartitioner(Mode mode, int staticSize, int workers, long inFlightBudget) {
+        this.mode = mode;
+        this.staticSize = staticSize;
+        this.workers = Math.max(1, workers);
+        this.inFlightBudget = inFlightBudget;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    /**
+     * Returns the partition size for the next transfer to the destination.
+     *
+     * @param destination the destination key, e.g. its base URL
+     * @return the number of parts per partition.
+     */
+    public int partitionSize(String destination) {
+        var observed = isEnabled() ? observed(destination, false) : null;
+        if (observed == null) {
+            return staticSize;
+        }
+        var recommended = observed.recommend(workers, inFlightBudget);
+        return switch (mode) {
+            case OFF -> staticSize;
+            case FLOOR -> Math.max(staticSize, recommended);
+            case CEILING -> Math.min(staticSize, recommended);
+        };
+    }
+
+    /**
+     * Records the delivery of a single part.
+     *
+     * @param destination the destination key
+     * @param bytes       the part size in bytes
+     * @param nanos       the time the delivery took
+     */
+    public void recordPart(String destination, long bytes, long nanos) {
+        if (isEnabled()) {
+            observed(destination, true).recordPart(bytes, nanos);
+        }
+    }
+
+    /**
+     * Records the number of parts of a completed transfer.
+     *
+     * @param destination the destination key
+     * @param parts       the number of parts delivered
+     */
+    public void recordTransfer(String destination, int parts) {
+        if (isEnabled()) {
+            observed(destination, true).recordTransfer(parts);
+        }
+    }
+
+    private Observations observed(String destination, boolean create) {
+        synchronized (observations) {
+            return create ? observations.computeIfAbsent(destination, key -> new Observations()) : observations.get(destination);
+        }
+    }
+
+    public enum Mode {
+        /**
+         * The static partition size is used for all transfers.
+         */
+        OFF,
+        /**
+         * The static partition size is the smallest partition size used.
+         */
+        FLOOR,
+        /**
+         * The static partition size is the largest partition size used.
+         */
+        CEILING;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Exponentially weighted averages of the observations of one destination.
+     */
+    private static class Observations {
+        private double partNanos = -1;
+        private double partBytes = -1;
+        private double parts = -1;
+
+        synchronized void recordPart(long bytes, long nanos) {
+            partNanos = smooth(partNanos, nanos);
+            partBytes = smooth(partBytes, bytes);
+        }
+
+        synchronized void recordTransfer(int count) {
+            parts = smooth(parts, count);
+        }
+
+        synchronized int recommend(int workers, long inFlightBudget) {
+            if (partNanos < 0 || parts < 0) {
+                return 1;
+            }
+            var affordable = partBytes > 0 ? inFlightBudget / partBytes : workers;
+            var concurrency = Math.max(1, Math.min(workers, (long) affordable));
+            var sizeForConcurrency = (long) Math.ceil(parts / concurrency);
+            var sizeForOverhead = partNanos > 0 ? (long) Math.ceil(MIN_TASK_NANOS / partNanos) : 1;
+            return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.max(sizeForConcurrency, sizeForOverhead)));
+        }
+
+        private static double smooth(double average, double sample) {
+            return average < 0 ? sample : average + SMOOTHING * (sample - average);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Process-wide budget of buffered payload bytes and concurrent transfer operations (source fetches and sink part
+ * writes).
+ * <p>
+ * Reserved bytes and operations are packed into a single word updated by compare-and-set, so admission and release
+ * never lock. Requests that do not fit wait in FIFO order for at most the configured time and are rejected after that;
+ * a newcomer only bypasses the queue while nobody is waiting. A request larger than the whole budget is admitted
+ * alone. Requests of unknown size reserve a configured estimate, which the holder resizes once the payload is read. A
+ * budget of 0 bytes or 0 operations leaves that dimension unlimited.
+ */
+public class AdmissionController {
+
+    private static final int BYTE_BITS = 43;
+    private static final long BYTE_MASK = (1L << BYTE_BITS) - 1;
+    private static final long MAX_OPERATIONS = (1L << (Long.SIZE - 1 - BYTE_BITS)) - 1;
+    private static final long OPERATION = 1L << BYTE_BITS;
+    private static final Permit NO_OP = new Permit(null, 0);
+
+    private final long maxBytes;
+    private final long maxOperations;
+    private final long estimatedBytes;
+    private final long maxWaitNanos;
+    private final AtomicLong reserved = new AtomicLong();
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param maxBytes       payload bytes that may be buffered at once, 0 for unlimited
+     * @param maxOperations  operations that may run at once, 0 for unlimited
+     * @param estimatedBytes bytes reserved by requests of unknown size
+     * @param maxWait        how long a request waits for budget before it is rejected
+     */
+    public AdmissionController(long maxBytes, int maxOperations, long estimatedBytes, Duration maxWait) {
+        if (maxBytes < 0 || maxOperations < 0 || estimatedBytes < 0) {
+            throw new IllegalArgumentException("Admission budget must not be negative");
+        }
+        this.maxBytes = maxBytes == 0 ? BYTE_MASK : Math.min(maxBytes, BYTE_MASK);
+        this.maxOperations = maxOperations == 0 ? MAX_OPERATIONS : Math.min(maxOperations, MAX_OPERATIONS);
+        this.estimatedBytes = estimatedBytes;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return maxBytes != BYTE_MASK || maxOperations != MAX_OPERATIONS;
+    }
+
+    /**
+     * Reserves budget for one operation buffering the given number of bytes, waiting for earlier requests and
+     * releases if necessary.
+     *
+     * @param bytes the expected payload size, negative if unknown
+     * @return the permit to close once the bytes are no longer held, null if the request was rejected.
+     */
+    public @Nullable Permit admit(long bytes) {
+        if (!isEnabled()) {
+            return NO_OP;
+        }
+        var reservedBytes = Math.min(bytes < 0 ? estimatedBytes : bytes, maxBytes);
+        var delta = OPERATION | reservedBytes;
+        if (waiters.isEmpty() && tryReserve(delta)) {
+            return new Permit(this, reservedBytes);
+        }
+        var current = Thread.currentThread();
+        waiters.add(current);
+        var deadline = System.nanoTime() + maxWaitNanos;
+        try {
+            while (true) {
+                if (waiters.peek() == current && tryReserve(delta)) {
+                    return new Permit(this, reservedBytes);
+                }
+                var remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || current.isInterrupted()) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiters.remove(current);
+            // the next waiter may fit into what is left, or take over as head after a rejection
+            wakeHead();
+        }
+    }
+
+    /**
+     * Bytes currently reserved.
+     */
+    public long reservedBytes() {
+        return reserved.get() & BYTE_MASK;
+    }
+
+    /**
+     * Operations currently admitted.
+     */
+    public long admittedOperations() {
+        return reserved.get() >>> BYTE_BITS;
+    }
+
+    private boolean tryReserve(long delta) {
+        var bytes = delta & BYTE_MASK;
+        while (true) {
+            var current = reserved.get();
+            var currentBytes = current & BYTE_MASK;
+            var currentOperations = current >>> BYTE_BITS;
+            if (currentOperations >= maxOperations || currentOperations > 0 && currentBytes + bytes > maxBytes) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + delta)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long delta) {
+        reserved.addAndGet(-delta);
+        wakeHead();
+    }
+
+    private void adjust(long bytes) {
+        reserved.addAndGet(bytes);
+        if (bytes < 0) {
+            wakeHead();
+        }
+    }
+
+    private void wakeHead() {
+        var head = waiters.peek();
+        if (head != null) {
+            LockSupport.unpark(head);
+        }
+    }
+
+    /**
+     * Admitted budget, returned on {@link #close()}. Closing more than once has no effect.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final AdmissionController controller;
+        private long bytes;
+        private boolean released;
+
+        private Permit(AdmissionController controller, long bytes) {
+            this.controller = controller;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Bytes reserved by this permit.
+         */
+        public synchronized long bytes() {
+            return bytes;
+        }
+
+        /**
+         * Changes the reserved bytes to the actual size of the payload once it is known. The payload is already held at
+         * that point, so growing never waits or fails; it delays later requests instead.
+         *
+         * @param bytes the payload size, ignored if negative
+         */
+        public synchronized void resize(long bytes) {
+            if (controller == null || released || bytes < 0) {
+                return;
+            }
+            var resized = Math.min(bytes, controller.maxBytes);
+            controller.adjust(resized - this.bytes);
+            this.bytes = resized;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (controller != null && !released) {
+                released = true;
+                controller.release(OPERATION | bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An anonymized body and the admission permit reserved for it, which is returned once the body is no longer read.
+ * <p>
+ * Transfers sharing a fetch read the same bytes, which are therefore reserved once, by the transfer that made the
+ * fetch; the others hold no permit.
+ *
+ * @param bytes  the anonymized body
+ * @param permit the reservation of the body, null if another transfer holds it
+ */
+record AdmittedBody(byte[] bytes, @Nullable AdmissionController.Permit permit) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        if (permit != null) {
+            permit.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+
+/**
+ * A part whose bytes are already reserved with the {@link AdmissionController} by its source, until the part or its
+ * stream is closed. Sinks only reserve an operation for it, so its bytes are not counted twice.
+ */
+interface AdmittedPart extends DataSource.Part {
+}
@@ -0,0 +1,127 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import dev.failsafe.Failsafe;
+import dev.failsafe.FailsafeExecutor;
+import dev.failsafe.RetryPolicy;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Executes requests with OkHttp's asynchronous {@link Call#enqueue(Callback)}, so no caller thread is held while a
+ * request is connecting, sending or waiting for the response. OkHttp runs each call on a thread of the dispatcher
+ * instead, which is bounded by the limits on requests in flight.
+ * <p>
+ * The returned future completes on an OkHttp dispatcher thread once the response headers have arrived, so callers
+ * continue on their own executor to read the body or do anything else that may block. The caller owns and must close
+ * the response. Cancelling the future cancels the call and stops retrying. The executor has its own
+ * {@link Dispatcher}, so its limits on concurrent requests do not affect other users of the shared client, while the
+ * connection pool is still shared.
+ * <p>
+ * Failed calls are retried with the runtime's retry policy, the one the {@code EdcHttpClient} applies to synchronous
+ * requests, so both modes retry connection failures alike.
+ */
+public class AsyncHttpExecutor {
+
+    private final OkHttpClient client;
+    private final FailsafeExecutor<Response> failsafe;
+
+    /**
+     * @param client             the shared client
+     * @param retryPolicy        retries failed calls
+     * @param maxRequests        requests in flight at once
+     * @param maxRequestsPerHost requests in flight at once per host
+     */
+    public AsyncHttpExecutor(OkHttpClient client, RetryPolicy<Response> retryPolicy, int maxRequests, int maxRequestsPerHost) {
+        var dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        this.client = client.newBuilder().dispatcher(dispatcher).build();
+        this.failsafe = Failsafe.with(retryPolicy);
+    }
+
+    /**
+     * Requests in flight at once per host, beyond which enqueued calls wait in the dispatcher.
+     */
+    public int maxRequestsPerHost() {
+        return client.dispatcher().getMaxRequestsPerHost();
+    }
+
+    /**
+     * Enqueues the request, and enqueues it again while the retry policy retries its failures.
+     *
+     * @param request the request
+     * @return the response, failed with the {@link IOException} of the last call.
+     */
+    public CompletableFuture<Response> execute(Request request) {
+        var future = new CompletableFuture<Response>();
+        var attempt = new AtomicReference<CompletableFuture<Response>>();
+        var execution = failsafe.getStageAsync(() -> {
+            var call = enqueue(request);
+            attempt.set(call);
+            // a cancellation racing the retry may have missed this call
+            if (future.isDone()) {
+                call.cancel(true);
+            }
+            return call;
+        });
+        execution.whenComplete((response, failure) -> {
+            if (failure != null) {
+                future.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+            } else if (!future.complete(response)) {
+                response.close();
+            }
+        });
+        future.whenComplete((response, failure) -> {
+            if (future.isCancelled()) {
+                var call = attempt.get();
+                // a response the retry policy has not handed on yet is closed here, one it has is closed above
+                if (call != null && !call.cancel(true) && !call.isCompletedExceptionally()) {
+                    call.join().close();
+                }
+                execution.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private CompletableFuture<Response> enqueue(Request request) {
+        var call = client.newCall(request);
+        var future = new CompletableFuture<Response>();
+        future.whenComplete((response, failure) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                if (!future.complete(response)) {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Stops the dispatcher threads.
+     */
+    public void shutdown() {
+        client.dispatcher().executorService().shutdown();
+    }
+}
@@ -0,0 +1,284 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.eclipse.edc.connector.dataplane.util.sink.ParallelSink;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.mvd.checkpoint.PartCheckpoint;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.format.BuildingColumnarFormat;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.Span;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static java.lang.String.format;
+
+/**
+ * Writes each part read from the source to several HTTP endpoints concurrently.
+ * <p>
+ * Every part is read once into a {@link TeeBuffer}. The destinations consume it in parallel, and the slowest one can
+ * fall at most {@code maxLag} bytes behind the fastest before reading from the source is paused. Destinations with the
+ * {@link BuildingColumnarFormat#CONTENT_TYPE} content type get the columnar binary format instead of JSON.
+ * <p>
+ * Each delivery runs on a destination thread. A part only starts once a thread is free for every destination it goes
+ * to, since a delivery waiting for a thread would stall the source read of its part at the lag bound. Deliveries are
+ * recorded per destination in the {@link TransferCheckpointStore}, so a retried request only sends a part to the
+ * destinations that did not acknowledge it.
+ */
+public class FanOutHttpDataSink extends ParallelSink {
+    private static final StreamResult<Void> ERROR_WRITING_DATA = StreamResult.error("Error writing data");
+
+    private List<HttpRequestParams> destinations;
+    private EdcHttpClient httpClient;
+    private HttpRequestFactory requestFactory;
+    private ExecutorService destinationExecutorService;
+    private Semaphore destinationThreads;
+    private TransferCheckpointStore checkpointStore;
+    private TransferTracer tracer;
+    private AdmissionController admission;
+    private long maxLag;
+
+    @Override
+    protected StreamResult<Void> transferParts(List<DataSource.Part> parts) {
+        try {
+            for (var part : parts) {
+                var result = transferPart(part);
+                if (result.failed()) {
+                    return result;
+                }
+            }
+            return StreamResult.success();
+        } finally {
+            // returns the sources' admission reservations, also of the parts that were skipped or never reached
+            parts.forEach(this::close);
+        }
+    }
+
+    @Override
+    protected StreamResult<Void> complete() {
+        checkpointStore.delete(requestId);
+        return super.complete();
+    }
+
+    private StreamResult<Void> transferPart(DataSource.Part part) {
+        var partName = String.valueOf(part.name());
+        var pending = pendingDestinations(partName);
+        if (pending.isEmpty()) {
+            monitor.debug(() -> format("Skipping HTTP data %s already delivered to all destinations for request %s", partName, requestId));
+            return StreamResult.success();
+        }
+        try (var span = tracer.start(requestId, "sink.fanout.part"); var permit = admission.admit(reservation(part))) {
+            span.attribute("part", partName).attribute("destinations", pending.size());
+            if (permit == null) {
+                span.error("over admission budget");
+                return StreamResult.error(format("Rejected HTTP data %s for request %s: data plane is over its in-flight budget", partName, requestId));
+            }
+            try {
+                destinationThreads.acquire(pending.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                span.error("interrupted");
+                return StreamResult.error(format("Interrupted waiting for fan-out threads for HTTP data %s of request %s", partName, requestId));
+            }
+            var failed = deliver(part, partName, pending, span);
+            if (failed > 0) {
+                monitor.severe(format("Writing HTTP data %s failed for %s of %s destinations", partName, failed, pending.size()));
+                span.error("Error writing data");
+                return ERROR_WRITING_DATA;
+            }
+            return StreamResult.success();
+        }
+    }
+
+    /**
+     * Pumps the part to the given destinations, each holding one of the acquired destination threads until its
+     * delivery finished.
+     *
+     * @return the number of destinations the part could not be delivered to.
+     */
+    private long deliver(DataSource.Part part, String partName, List<Integer> pending, Span span) {
+        InputStream source;
+        try {
+            source = part.openStream();
+        } catch (RuntimeException e) {
+            destinationThreads.release(pending.size());
+            monitor.severe(format("Error reading HTTP data %s for fan-out to %s destinations", partName, pending.size()), e);
+            return pending.size();
+        }
+        var tee = new TeeBuffer(pending.size(), maxLag);
+        var readers = tee.readers();
+        var deliveries = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < pending.size(); i++) {
+            var destination = pending.get(i);
+            var reader = readers.get(i);
+            try {
+                deliveries.add(CompletableFuture.supplyAsync(() -> send(destination, partName, reader, span), destinationExecutorService)
+                        .whenComplete((delivered, failure) -> destinationThreads.release()));
+            } catch (RejectedExecutionException e) {
+                // detach the reader so the other destinations are not held back by a delivery that never starts
+                destinationThreads.release();
+                reader.close();
+                monitor.severe(format("No thread available to write HTTP data %s to endpoint %s", partName, destinations.get(destination).getBaseUrl()), e);
+                deliveries.add(CompletableFuture.completedFuture(false));
+            }
+        }
+        try {
+            tee.pump(source);
+        } catch (RuntimeException e) {
+            monitor.severe(format("Error reading HTTP data %s for fan-out to %s destinations", partName, pending.size()), e);
+        }
+        return deliveries.stream()
+                .map(delivery -> delivery.handle((delivered, failure) -> failure == null && delivered).join())
+                .filter(delivered -> !delivered)
+                .count();
+    }
+
+    private boolean send(int destination, String partName, InputStream reader, Span partSpan) {
+        var params = destinations.get(destination);
+        try (var span = partSpan.child("sink.fanout.delivery")) {
+            span.attribute("destination", destination);
+            try (var content = new CountingInputStream(reader)) {
+                var body = BuildingColumnarFormat.isSelectedBy(params.getContentType()) ? BuildingColumnarFormat.transcode(content) : content;
+                var request = requestFactory.toRequest(params, () -> body);
+                try (var response = httpClient.execute(request)) {
+                    if (!response.isSuccessful()) {
+                        monitor.severe(format("Error {%s: %s} received writing HTTP data %s to endpoint %s for request: %s",
+                                response.code(), response.message(), partName, request.url().url(), request));
+                        span.error("Error writing data");
+                        return false;
+                    }
+                }
+                checkpointStore.save(requestId, checkpointName(partName, destination), PartCheckpoint.completed(content.count()));
+                return true;
+            } catch (Exception e) {
+                monitor.severe(format("Error writing HTTP data %s to endpoint %s", partName, params.getBaseUrl()), e);
+                span.error("Error writing data");
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The indexes of the destinations that have not acknowledged the part yet.
+     */
+    private List<Integer> pendingDestinations(String partName) {
+        var pending = new ArrayList<Integer>();
+        for (var i = 0; i < destinations.size(); i++) {
+            var checkpoint = checkpointStore.find(requestId, checkpointName(partName, i));
+            if (checkpoint == null || !checkpoint.completed()) {
+                pending.add(i);
+            }
+        }
+        return pending;
+    }
+
+    private static String checkpointName(String partName, int destination) {
+        return partName + "->" + destination;
+    }
+
+    /**
+     * Bytes to reserve for fanning out the part: none if its source holds a reservation for them already, its size if
+     * known, the estimate otherwise.
+     */
+    private static long reservation(DataSource.Part part) {
+        return part instanceof AdmittedPart ? 0 : part.size();
+    }
+
+    private void close(DataSource.Part part) {
+        try {
+            part.close();
+        } catch (Exception e) {
+            monitor.warning(format("Error closing HTTP data %s for request %s", part.name(), requestId), e);
+        }
+    }
+
+    private FanOutHttpDataSink() {
+    }
+
+    public static class Builder extends ParallelSink.Builder<Builder, FanOutHttpDataSink> {
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        private Builder() {
+            super(new FanOutHttpDataSink());
+        }
+
+        public Builder destinations(List<HttpRequestParams> destinations) {
+            sink.destinations = List.copyOf(destinations);
+            return this;
+        }
+
+        public Builder httpClient(EdcHttpClient httpClient) {
+            sink.httpClient = httpClient;
+            return this;
+        }
+
+        public Builder requestFactory(HttpRequestFactory requestFactory) {
+            sink.requestFactory = requestFactory;
+            return this;
+        }
+
+        public Builder destinationExecutorService(ExecutorService destinationExecutorService) {
+            sink.destinationExecutorService = destinationExecutorService;
+            return this;
+        }
+
+        /**
+         * Limits the deliveries running at once, shared by all fan-out sinks of the destination executor and sized to
+         * its threads.
+         */
+        public Builder destinationThreads(Semaphore destinationThreads) {
+            sink.destinationThreads = destinationThreads;
+            return this;
+        }
+
+        public Builder checkpointStore(TransferCheckpointStore checkpointStore) {
+            sink.checkpointStore = checkpointStore;
+            return this;
+        }
+
+        public Builder tracer(TransferTracer tracer) {
+            sink.tracer = tracer;
+            return this;
+        }
+
+        public Builder admission(AdmissionController admission) {
+            sink.admission = admission;
+            return this;
+        }
+
+        public Builder maxLag(long maxLag) {
+            sink.maxLag = maxLag;
+            return this;
+        }
+
+        @Override
+        protected void validate() {
+            Objects.requireNonNull(sink.requestFactory, "requestFactory");
+            Objects.requireNonNull(sink.destinationExecutorService, "destinationExecutorService");
+            Objects.requireNonNull(sink.destinationThreads, "destinationThreads");
+            Objects.requireNonNull(sink.checkpointStore, "checkpointStore");
+            Objects.requireNonNull(sink.tracer, "tracer");
+            Objects.requireNonNull(sink.admission, "admission");
+            Objects.requireNonNull(sink.destinations, "destinations");
+            if (sink.destinations.isEmpty()) {
+                throw new IllegalArgumentException("At least one fan-out destination is required");
+            }
+            if (sink.maxLag <= 0) {
+                throw new IllegalArgumentException("maxLag must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSink;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSinkFactory;
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.result.Result;
+import org.eclipse.edc.spi.types.TypeManager;
+import org.eclipse.edc.spi.types.domain.DataAddress;
+import org.eclipse.edc.spi.types.domain.HttpDataAddress;
+import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import static java.lang.String.format;
+
+/**
+ * Instantiates {@link FanOutHttpDataSink}s for requests whose destination data type is {@code HttpDataAnonymizeFanOut}.
+ * <p>
+ * The destination address carries a {@code destinations} property holding a JSON array of HTTP data address
+ * properties. Each entry is decorated into its own {@link HttpRequestParams} as if it were the destination of the
+ * request. Property values must be strings, numbers or booleans; {@code null} values are ignored. Destinations are always
+ * written with chunked transfer, since a non-chunked body would be buffered whole and defeat the lag bound.
+ * <p>
+ * The sinks share the destination executor, whose threads are handed out to parts all at once for their destinations,
+ * so a request may have at most as many destinations as the executor has threads.
+ */
+public class FanOutHttpDataSinkFactory implements DataSinkFactory {
+    public static final String DESTINATIONS = "destinations";
+
+    private final EdcHttpClient httpClient;
+    private final ExecutorService executorService;
+    private final ExecutorService destinationExecutorService;
+    private final int destinationThreadCount;
+    private final Semaphore destinationThreads;
+    private final int partitionSize;
+    private final long maxLag;
+    private final Monitor monitor;
+    private final HttpRequestParamsProvider requestParamsProvider;
+    private final HttpRequestFactory requestFactory;
+    private final TypeManager typeManager;
+    private final TransferCheckpointStore checkpointStore;
+    private final TransferTracer tracer;
+    private final AdmissionController admission;
+    private final static String HTTP_DATA_TYPE = "HttpDataAnonymize";
+    private final static String FAN_OUT_DATA_TYPE = "HttpDataAnonymizeFanOut";
+
+    public FanOutHttpDataSinkFactory(EdcHttpClient httpClient,
+                                     ExecutorService executorService,
+                                     ExecutorService destinationExecutorService,
+                                     int destinationThreadCount,
+                                     int partitionSize,
+                                     long maxLag,
+                                     Monitor monitor,
+                                     HttpRequestParamsProvider requestParamsProvider,
+                                     HttpRequestFactory requestFactory,
+                                     TypeManager typeManager,
+                                     TransferCheckpointStore checkpointStore,
+                                     TransferTracer tracer,
+                                     AdmissionController admission) {
+        this.httpClient = httpClient;
+        this.executorService = executorService;
+        this.destinationExecutorService = destinationExecutorService;
+        this.destinationThreadCount = destinationThreadCount;
+        // fair, so a part waiting for all of its threads is not overtaken by parts with fewer destinations
+        this.destinationThreads = new Semaphore(destinationThreadCount, true);
+        this.partitionSize = partitionSize;
+        this.maxLag = maxLag;
+        this.monitor = monitor;
+        this.requestParamsProvider = requestParamsProvider;
+        this.requestFactory = requestFactory;
+        this.typeManager = typeManager;
+        this.checkpointStore = checkpointStore;
+        this.tracer = tracer;
+        this.admission = admission;
+    }
+
+    @Override
+    public boolean canHandle(DataFlowRequest request) {
+        return FAN_OUT_DATA_TYPE.equals(request.getDestinationDataAddress().getType());
+    }
+
+    @Override
+    public @NotNull Result<Void> validateRequest(DataFlowRequest request) {
+        try {
+            createSink(request);
+        } catch (Exception e) {
+            return Result.failure("Failed to build FanOutHttpDataSink: " + e.getMessage());
+        }
+        return Result.success();
+    }
+
+    @Override
+    public DataSink createSink(DataFlowRequest request) {
+        return FanOutHttpDataSink.Builder.newInstance()
+                .destinations(provideDestinationParams(request))
+                .requestId(request.getId())
+                .partitionSize(partitionSize)
+                .httpClient(httpClient)
+                .executorService(executorService)
+                .destinationExecutorService(destinationExecutorService)
+                .destinationThreads(destinationThreads)
+                .checkpointStore(checkpointStore)
+                .tracer(tracer)
+                .admission(admission)
+                .maxLag(maxLag)
+                .monitor(monitor)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    private List<HttpRequestParams> provideDestinationParams(DataFlowRequest request) {
+        var destinations = request.getDestinationDataAddress().getProperty(DESTINATIONS);
+        if (destinations == null) {
+            throw new EdcException(format("DataFlowRequest %s: '%s' property is missing in fan-out data address", request.getId(), DESTINATIONS));
+        }
+        var params = new ArrayList<HttpRequestParams>();
+        for (var destination : typeManager.readValue(destinations, List.class)) {
+            if (!(destination instanceof Map<?, ?> properties)) {
+                throw new EdcException(format("DataFlowRequest %s: fan-out destinations must be JSON objects", request.getId()));
+            }
+            var address = DataAddress.Builder.newInstance().type(HTTP_DATA_TYPE);
+            for (var property : properties.entrySet()) {
+                var value = property.getValue();
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof Map<?, ?> || value instanceof List<?>) {
+                    throw new EdcException(format("DataFlowRequest %s: fan-out destination property '%s' must be a string, number or boolean",
+                            request.getId(), property.getKey()));
+                }
+                address.property(property.getKey().toString(), value.toString());
+            }
+            if (Boolean.parseBoolean(String.valueOf(properties.get(HttpDataAddress.NON_CHUNKED_TRANSFER)))) {
+                throw new EdcException(format("DataFlowRequest %s: fan-out destinations must use chunked transfer, '%s' would buffer whole parts past the lag bound",
+                        request.getId(), HttpDataAddress.NON_CHUNKED_TRANSFER));
+            }
+            var destinationRequest = DataFlowRequest.Builder.newInstance()
+                    .id(request.getId())
+                    .processId(request.getProcessId())
+                    .sourceDataAddress(request.getSourceDataAddress())
+                    .destinationDataAddress(address.build())
+                    .properties(request.getProperties())
+                    .traceContext(request.getTraceContext())
+                    .build();
+            params.add(requestParamsProvider.provideSinkParams(destinationRequest));
+        }
+        if (params.size() > destinationThreadCount) {
+            throw new EdcException(format("DataFlowRequest %s: %s fan-out destinations exceed the %s destination threads",
+                    request.getId(), params.size(), destinationThreadCount));
+        }
+        return params;
+    }
+}
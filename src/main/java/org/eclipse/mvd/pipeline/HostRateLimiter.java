@@ -0,0 +1,146 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.spi.EdcException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token-bucket rate limiter shared by all transfers, with one bucket per upstream host.
+ * <p>
+ * Each bucket is a lock-free GCRA (the virtual scheduling form of a token bucket): it holds the theoretical arrival
+ * time of the next request in a single {@link AtomicLong} and callers reserve their slot with a compare-and-set, so
+ * transfers to different hosts never contend and transfers to the same host contend on one CAS only. A rate of 0
+ * disables limiting, but buckets still honour back-offs requested through {@link #backOff(String, Duration)}.
+ * <p>
+ * A bucket that has refilled completely behaves like a new one, so such idle buckets are dropped once more than
+ * {@value #SWEEP_THRESHOLD} hosts are tracked. Callers racing with the removal retry on the bucket that replaces it.
+ */
+public class HostRateLimiter {
+
+    static final int SWEEP_THRESHOLD = 1024;
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong sweepAt = new AtomicLong(SWEEP_THRESHOLD);
+
+    /**
+     * Creates a limiter.
+     *
+     * @param permitsPerSecond sustained requests per second and host, 0 for unlimited
+     * @param burst            requests per host that may be issued at once before the rate applies
+     */
+    public HostRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * Creates a limiter reading the time from the given clock, e.g. a fixed one in tests.
+     *
+     * @param permitsPerSecond sustained requests per second and host, 0 for unlimited
+     * @param burst            requests per host that may be issued at once before the rate applies
+     * @param nanoClock        the time in nanoseconds, like {@link System#nanoTime()}
+     */
+    HostRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    /**
+     * Waits until a request to the host is permitted.
+     *
+     * @param host the upstream host
+     */
+    public void acquire(String host) {
+        var wait = reserve(host);
+        if (wait > 0) {
+            park(wait);
+        }
+    }
+
+    /**
+     * Reserves the next permitted slot for a request to the host without waiting for it.
+     *
+     * @param host the upstream host
+     * @return the nanoseconds the caller has to wait before issuing the request, 0 or less if it may be issued now.
+     */
+    public long reserve(String host) {
+        var bucket = bucketOf(host);
+        while (true) {
+            var now = nanoClock.getAsLong();
+            var current = bucket.get();
+            var arrival = Math.max(current, now);
+            if (bucket.compareAndSet(current, arrival + intervalNanos)) {
+                if (buckets.get(host) != bucket) {
+                    // the bucket was swept as idle before the reservation landed
+                    bucket = bucketOf(host);
+                    continue;
+                }
+                return arrival - toleranceNanos - now;
+            }
+        }
+    }
+
+    /**
+     * Delays all further requests to the host, e.g. after the host answered with {@code Retry-After}.
+     *
+     * @param host  the upstream host
+     * @param delay the time no request should be issued
+     */
+    public void backOff(String host, Duration delay) {
+        var until = nanoClock.getAsLong() + delay.toNanos() + toleranceNanos;
+        AtomicLong bucket;
+        do {
+            bucket = bucketOf(host);
+            bucket.accumulateAndGet(until, Math::max);
+        } while (buckets.get(host) != bucket);
+    }
+
+    /**
+     * The number of hosts a bucket is kept for.
+     */
+    int trackedHosts() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketOf(String host) {
+        var bucket = buckets.get(host);
+        if (bucket != null) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(host, key -> new AtomicLong(nanoClock.getAsLong() - toleranceNanos));
+        var threshold = sweepAt.get();
+        if (buckets.size() > threshold && sweepAt.compareAndSet(threshold, Long.MAX_VALUE)) {
+            sweep(host);
+        }
+        return bucket;
+    }
+
+    /**
+     * Drops the buckets that have refilled completely, except the one just created, and sweeps again once the
+     * remaining ones have doubled.
+     */
+    private void sweep(String created) {
+        var now = nanoClock.getAsLong();
+        buckets.entrySet().removeIf(entry -> !entry.getKey().equals(created) && entry.getValue().get() <= now - toleranceNanos);
+        sweepAt.set(Math.max(SWEEP_THRESHOLD, 2L * buckets.size()));
+    }
+
+    private static void park(long nanos) {
+        var deadline = System.nanoTime() + nanos;
+        for (var remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new EdcException("Interrupted while waiting for the upstream rate limit");
+            }
+        }
+    }
+}
@@ -4,42 +4,395 @@ import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
 import org.eclipse.edc.connector.dataplane.util.sink.ParallelSink;
+import org.eclipse.edc.spi.EdcException;
 import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.mvd.checkpoint.PartCheckpoint;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.delta.DeltaTransfer;
+import org.eclipse.edc.mvd.format.BuildingColumnarFormat;
 import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.jetbrains.annotations.Nullable;
 
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.String.format;
 
 /**
  * Writes data in a streaming fashion to an HTTP endpoint.
+ * <p>
+ * Delivered parts are recorded in a {@link TransferCheckpointStore}, so a retried request skips them. When a segment
+ * size is configured, parts are uploaded in segments carrying a {@code Content-Range} header and a retry continues
+ * after the last acknowledged segment.
+ * <p>
+ * Part sizes, latencies and counts are reported to the {@link AdaptivePartitioner} to size later transfers to the
+ * same destination. Destinations with the {@link BuildingColumnarFormat#CONTENT_TYPE} content type receive the
+ * anonymized buildings in the columnar binary format instead of JSON.
+ * <p>
+ * With a {@link DeltaTransfer}, only records that are new or changed since the last transfer to the destination are
+ * sent, and the tombstones of removed records follow in a final request once all parts are delivered.
+ * <p>
+ * With an {@link AsyncHttpExecutor}, each partition pipelines its unsegmented parts: their requests are sent
+ * concurrently, at most as many as the executor allows per host and bounded by the {@link AdmissionController}, and
+ * the partition completes once all responses arrived.
  */
 public class HttpDataSink extends ParallelSink {
     private static final StreamResult<Void> ERROR_WRITING_DATA = StreamResult.error("Error writing data");
+    private static final String CONTENT_RANGE = "Content-Range";
 
     private HttpRequestParams params;
     private EdcHttpClient httpClient;
     private HttpRequestFactory requestFactory;
+    private TransferCheckpointStore checkpointStore;
+    private int segmentSize;
+    private AdaptivePartitioner partitioner;
+    private DeltaTransfer delta;
+    private TransferTracer tracer;
+    private AdmissionController admission;
+    private AsyncHttpExecutor asyncExecutor;
+    private final AtomicInteger partCount = new AtomicInteger();
 
     @Override
     protected StreamResult<Void> transferParts(List<DataSource.Part> parts) {
+        try {
+            return transferEach(parts);
+        } finally {
+            // returns the sources' admission reservations, also of the parts that were skipped or never reached
+            parts.forEach(this::close);
+        }
+    }
+
+    private StreamResult<Void> transferEach(List<DataSource.Part> parts) {
+        var pending = new ArrayList<CompletableFuture<Boolean>>();
+        // parts beyond the per-host limit would only wait buffered in the dispatcher, so the partition reads no further
+        var inFlight = asyncExecutor != null ? new Semaphore(asyncExecutor.maxRequestsPerHost()) : null;
         for (var part : parts) {
-            var request = requestFactory.toRequest(params, part::openStream);
-            try (var response = httpClient.execute(request)) {
-                if (!response.isSuccessful()) {
-                    monitor.severe(format("Error {%s: %s} received writing HTTP data %s to endpoint %s for request: %s",
-                            response.code(), response.message(), part.name(), request.url().url(), request));
+            partCount.incrementAndGet();
+            var partName = String.valueOf(part.name());
+            var checkpoint = checkpointStore.find(requestId, partName);
+            if (checkpoint != null && checkpoint.completed()) {
+                monitor.debug(() -> format("Skipping HTTP data %s already delivered for request %s", partName, requestId));
+                if (delta != null) {
+                    delta.markIncomplete();
+                }
+                continue;
+            }
+            if (inFlight != null && segmentSize <= 0) {
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    awaitAll(pending);
+                    return StreamResult.error(format("Interrupted sending HTTP data %s for request %s", partName, requestId));
+                }
+                // the part is only counted against the budget while its request is in flight
+                var permit = admission.admit(reservation(part));
+                if (permit == null) {
+                    inFlight.release();
+                    awaitAll(pending);
+                    return StreamResult.error(format("Rejected HTTP data %s for request %s: data plane is over its in-flight budget", partName, requestId));
+                }
+                pending.add(transferPartAsync(part, partName, permit).whenComplete((delivered, failure) -> {
+                    permit.close();
+                    inFlight.release();
+                }));
+                continue;
+            }
+            try (var span = tracer.start(requestId, "sink.part"); var permit = admission.admit(reservation(part))) {
+                span.attribute("part", partName);
+                if (permit == null) {
+                    span.error("over admission budget");
+                    return StreamResult.error(format("Rejected HTTP data %s for request %s: data plane is over its in-flight budget", partName, requestId));
+                }
+                var result = segmentSize > 0
+                        ? transferSegments(part, partName, checkpoint)
+                        : transferPart(part, partName);
+                if (result.failed()) {
+                    span.error(result.getFailureDetail());
+                    awaitAll(pending);
+                    return result;
+                }
+            }
+        }
+        return awaitAll(pending) ? StreamResult.success() : ERROR_WRITING_DATA;
+    }
+
+    @Override
+    protected StreamResult<Void> complete() {
+        if (delta != null) {
+            var tombstones = delta.tombstones();
+            if (tombstones != null) {
+                // a retry skips the delivered parts and can only send the tombstones recorded here
+                delta.savePendingTombstones();
+                if (!send(requestFactory.toRequest(params, () -> new ByteArrayInputStream(tombstones)), "tombstones")) {
                     return ERROR_WRITING_DATA;
                 }
+            }
+            delta.commit();
+        }
+        checkpointStore.delete(requestId);
+        partitioner.recordTransfer(params.getBaseUrl(), partCount.get());
+        return super.complete();
+    }
+
+    private StreamResult<Void> transferPart(DataSource.Part part, String partName) {
+        var start = System.nanoTime();
+        var content = new AtomicReference<CountingInputStream>();
+        var request = toRequest(part, partName, content);
+        if (request == null || !send(request, partName)) {
+            return ERROR_WRITING_DATA;
+        }
+        var bytes = content.get() == null ? -1 : content.get().count();
+        checkpointStore.save(requestId, partName, PartCheckpoint.completed(bytes));
+        partitioner.recordPart(params.getBaseUrl(), Math.max(0, bytes), System.nanoTime() - start);
+        return StreamResult.success();
+    }
+
+    /**
+     * Sends the part with the asynchronous executor. The part is read, filtered and transcoded on the partition's
+     * thread, since reading it may block, e.g. on a resource fetch, and the request body is written on a dispatcher
+     * thread. The partition's thread moves on to the next part while the request is in flight; the checkpoint and the
+     * partitioner are updated when the response arrives.
+     *
+     * @param permit the part's reservation, resized to the buffered body, which takes over from the source's
+     *               reservation released by closing the part's stream
+     */
+    private CompletableFuture<Boolean> transferPartAsync(DataSource.Part part, String partName, AdmissionController.Permit permit) {
+        var span = tracer.startDetached(requestId, "sink.part").attribute("part", partName);
+        var start = System.nanoTime();
+        byte[] body;
+        try (var content = openContent(part)) {
+            body = content.readAllBytes();
+        } catch (IOException | RuntimeException e) {
+            monitor.severe(format("Error reading HTTP data %s for request %s", partName, requestId), e);
+            span.error("Error writing data");
+            span.close();
+            return CompletableFuture.completedFuture(false);
+        }
+        permit.resize(body.length);
+        var request = requestFactory.toRequest(params, () -> new ByteArrayInputStream(body));
+        return asyncExecutor.execute(request).handle((response, failure) -> {
+            var delivered = failure == null ? accepted(request, response, partName) : rejected(request, failure, partName);
+            if (delivered) {
+                checkpointStore.save(requestId, partName, PartCheckpoint.completed(body.length));
+                partitioner.recordPart(params.getBaseUrl(), body.length, System.nanoTime() - start);
+            } else {
+                span.error("Error writing data");
+            }
+            span.close();
+            return delivered;
+        });
+    }
+
+    /**
+     * Bytes to reserve for writing the part: none if its source holds a reservation for them already, its size if
+     * known, the estimate otherwise.
+     */
+    private static long reservation(DataSource.Part part) {
+        return part instanceof AdmittedPart ? 0 : part.size();
+    }
+
+    private void close(DataSource.Part part) {
+        try {
+            part.close();
+        } catch (Exception e) {
+            monitor.warning(format("Error closing HTTP data %s for request %s", part.name(), requestId), e);
+        }
+    }
+
+    /**
+     * Waits for the parts in flight, so the transfer never completes or fails while requests are still sending.
+     *
+     * @return whether all of them were delivered.
+     */
+    private static boolean awaitAll(List<CompletableFuture<Boolean>> pending) {
+        var delivered = true;
+        for (var transfer : pending) {
+            delivered &= transfer.handle((sent, failure) -> failure == null && sent).join();
+        }
+        return delivered;
+    }
+
+    /**
+     * Uploads the part in segments of {@code segmentSize} bytes, starting after the bytes a previous attempt got
+     * acknowledged. One segment is read ahead so the last segment can announce the total length.
+     * <p>
+     * The part is produced again for every attempt and may differ from what was acknowledged, e.g. when the upstream
+     * changed. The acknowledged prefix is therefore compared with the digest stored in the checkpoint, and the upload
+     * restarts at offset 0 when it does not match.
+     */
+    private StreamResult<Void> transferSegments(DataSource.Part part, String partName, @Nullable PartCheckpoint checkpoint) {
+        var start = System.nanoTime();
+        try {
+            var digest = sha256();
+            if (checkpoint != null && checkpoint.acknowledgedBytes() > 0) {
+                try (var content = openContent(part)) {
+                    var prefix = digestPrefix(content, digest, checkpoint.acknowledgedBytes());
+                    if (prefix == checkpoint.acknowledgedBytes() && hex(clone(digest)).equals(checkpoint.prefixDigest())) {
+                        return uploadSegments(content, partName, prefix, digest, start);
+                    }
+                }
+                monitor.warning(format("HTTP data %s for request %s changed since %s bytes were acknowledged, restarting the upload",
+                        partName, requestId, checkpoint.acknowledgedBytes()));
+                digest.reset();
+            }
+            // the prefix is not kept, so a restart reads the part again
+            try (var content = openContent(part)) {
+                return uploadSegments(content, partName, 0, digest, start);
+            }
+        } catch (Exception e) {
+            monitor.severe(format("Error reading HTTP data %s for request %s", partName, requestId), e);
+            return ERROR_WRITING_DATA;
+        }
+    }
 
+    /**
+     * Uploads the rest of the content from the given offset.
+     *
+     * @param digest the digest of the bytes before the offset
+     */
+    private StreamResult<Void> uploadSegments(InputStream content, String partName, long offset, MessageDigest digest, long start) throws IOException {
+        var resumedAt = offset;
+        var segment = content.readNBytes(segmentSize);
+        while (true) {
+            var next = segment.length == segmentSize ? content.readNBytes(segmentSize) : new byte[0];
+            var last = next.length == 0;
+            if (segment.length > 0 || offset == 0) {
+                var current = segment;
+                var request = requestFactory.toRequest(params, () -> new ByteArrayInputStream(current));
+                var total = last ? String.valueOf(offset + segment.length) : "*";
+                var range = segment.length == 0
+                        ? format("bytes */%s", total)
+                        : format("bytes %s-%s/%s", offset, offset + segment.length - 1, total);
+                if (!send(request.newBuilder().header(CONTENT_RANGE, range).build(), partName)) {
+                    return ERROR_WRITING_DATA;
+                }
+                digest.update(segment);
+                offset += segment.length;
+            }
+            if (last) {
+                checkpointStore.save(requestId, partName, PartCheckpoint.completed(offset));
+                partitioner.recordPart(params.getBaseUrl(), offset - resumedAt, System.nanoTime() - start);
                 return StreamResult.success();
-            } catch (Exception e) {
-                monitor.severe(format("Error writing HTTP data %s to endpoint %s for request: %s", part.name(), request.url().url(), request), e);
-                return ERROR_WRITING_DATA;
             }
+            checkpointStore.save(requestId, partName, PartCheckpoint.acknowledged(offset, hex(clone(digest))));
+            segment = next;
         }
-        return StreamResult.success();
+    }
+
+    /**
+     * Feeds up to {@code length} bytes of the content into the digest in chunks, without keeping them.
+     *
+     * @return the number of bytes read, less than {@code length} if the content is shorter.
+     */
+    private static long digestPrefix(InputStream content, MessageDigest digest, long length) throws IOException {
+        var buffer = new byte[8192];
+        var read = 0L;
+        while (read < length) {
+            var count = content.read(buffer, 0, (int) Math.min(buffer.length, length - read));
+            if (count == -1) {
+                break;
+            }
+            digest.update(buffer, 0, count);
+            read += count;
+        }
+        return read;
+    }
+
+    /**
+     * Builds the request of an unsegmented part. Non-chunked bodies are read while the request is built, so failures to
+     * read, filter or transcode the part surface here.
+     *
+     * @return the request, null if the part could not be read.
+     */
+    private @Nullable Request toRequest(DataSource.Part part, String partName, AtomicReference<CountingInputStream> content) {
+        try {
+            return requestFactory.toRequest(params, () -> {
+                content.set(new CountingInputStream(openContent(part)));
+                return content.get();
+            });
+        } catch (RuntimeException e) {
+            monitor.severe(format("Error reading HTTP data %s for request %s", partName, requestId), e);
+            return null;
+        }
+    }
+
+    private InputStream openContent(DataSource.Part part) {
+        var content = part.openStream();
+        if (delta != null) {
+            try {
+                content = delta.filter(content);
+            } catch (IOException e) {
+                throw new EdcException(format("Failed to compute the delta of HTTP data %s", part.name()), e);
+            }
+        }
+        if (!BuildingColumnarFormat.isSelectedBy(params.getContentType())) {
+            return content;
+        }
+        try {
+            return BuildingColumnarFormat.transcode(content);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to transcode HTTP data %s to %s", part.name(), BuildingColumnarFormat.CONTENT_TYPE), e);
+        }
+    }
+
+    private boolean send(Request request, String partName) {
+        try {
+            return accepted(request, httpClient.execute(request), partName);
+        } catch (Exception e) {
+            return rejected(request, e, partName);
+        }
+    }
+
+    private boolean accepted(Request request, Response response, String partName) {
+        try (response) {
+            if (!response.isSuccessful()) {
+                monitor.severe(format("Error {%s: %s} received writing HTTP data %s to endpoint %s for request: %s",
+                        response.code(), response.message(), partName, request.url().url(), request));
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private boolean rejected(Request request, Throwable failure, String partName) {
+        monitor.severe(format("Error writing HTTP data %s to endpoint %s for request: %s", partName, request.url().url(), request), failure);
+        return false;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this runtime", e);
+        }
+    }
+
+    private static MessageDigest clone(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digests cannot be cloned by this runtime", e);
+        }
+    }
+
+    private static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     private HttpDataSink() {
@@ -70,9 +423,48 @@ public class HttpDataSink extends ParallelSink {
             return this;
         }
 
+        public Builder checkpointStore(TransferCheckpointStore checkpointStore) {
+            sink.checkpointStore = checkpointStore;
+            return this;
+        }
+
+        public Builder partitioner(AdaptivePartitioner partitioner) {
+            sink.partitioner = partitioner;
+            return this;
+        }
+
+        public Builder delta(DeltaTransfer delta) {
+            sink.delta = delta;
+            return this;
+        }
+
+        public Builder tracer(TransferTracer tracer) {
+            sink.tracer = tracer;
+            return this;
+        }
+
+        public Builder admission(AdmissionController admission) {
+            sink.admission = admission;
+            return this;
+        }
+
+        public Builder asyncExecutor(AsyncHttpExecutor asyncExecutor) {
+            sink.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            sink.segmentSize = segmentSize;
+            return this;
+        }
+
         @Override
         protected void validate() {
             Objects.requireNonNull(sink.requestFactory, "requestFactory");
+            Objects.requireNonNull(sink.checkpointStore, "checkpointStore");
+            Objects.requireNonNull(sink.partitioner, "partitioner");
+            Objects.requireNonNull(sink.tracer, "tracer");
+            Objects.requireNonNull(sink.admission, "admission");
         }
     }
 }
@@ -3,39 +3,75 @@ package org.eclipse.edc.mvd.pipeline;
 import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSink;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSinkFactory;
+import org.eclipse.edc.spi.EdcException;
 import org.eclipse.edc.spi.http.EdcHttpClient;
 import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.result.Result;
 import org.eclipse.edc.spi.types.domain.HttpDataAddress;
 import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.delta.DeltaIndexStore;
+import org.eclipse.edc.mvd.delta.DeltaMode;
+import org.eclipse.edc.mvd.delta.DeltaTransfer;
+import org.eclipse.edc.mvd.format.BuildingColumnarFormat;
 import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.concurrent.ExecutorService;
 
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Instantiates {@link HttpDataSink}s for requests whose source data type is {@link HttpDataAddress#HTTP_DATA}.
+ * <p>
+ * Destinations that accept {@code Content-Range} uploads can set the {@code resumableSegmentSize} address property to
+ * have parts uploaded in segments of that many bytes.
+ * <p>
+ * The {@code deltaMode} address property enables delta delivery against the index of the (asset, destination) pair,
+ * which is identified by the source and destination addresses unless a {@code deltaKey} is given.
  */
 public class HttpDataSinkFactory implements DataSinkFactory {
+    public static final String RESUMABLE_SEGMENT_SIZE = "resumableSegmentSize";
+    public static final String DELTA_MODE = "deltaMode";
+    public static final String DELTA_KEY = "deltaKey";
+
     private final EdcHttpClient httpClient;
     private final ExecutorService executorService;
-    private final int partitionSize;
+    private final AdaptivePartitioner partitioner;
     private final Monitor monitor;
     private final HttpRequestParamsProvider requestParamsProvider;
     private final HttpRequestFactory requestFactory;
+    private final TransferCheckpointStore checkpointStore;
+    private final DeltaIndexStore deltaIndexStore;
+    private final TransferTracer tracer;
+    private final AdmissionController admission;
+    private final AsyncHttpExecutor asyncExecutor;
     private final static String HTTP_DATA_TYPE = "HttpDataAnonymize";
 
     public HttpDataSinkFactory(EdcHttpClient httpClient,
                                ExecutorService executorService,
-                               int partitionSize,
+                               AdaptivePartitioner partitioner,
                                Monitor monitor,
-                               HttpRequestParamsProvider requestParamsProvider, HttpRequestFactory requestFactory) {
+                               HttpRequestParamsProvider requestParamsProvider, HttpRequestFactory requestFactory,
+                               TransferCheckpointStore checkpointStore, DeltaIndexStore deltaIndexStore, TransferTracer tracer,
+                               AdmissionController admission, @Nullable AsyncHttpExecutor asyncExecutor) {
         this.httpClient = httpClient;
         this.executorService = executorService;
-        this.partitionSize = partitionSize;
+        this.partitioner = partitioner;
         this.monitor = monitor;
         this.requestParamsProvider = requestParamsProvider;
         this.requestFactory = requestFactory;
+        this.checkpointStore = checkpointStore;
+        this.deltaIndexStore = deltaIndexStore;
+        this.tracer = tracer;
+        this.admission = admission;
+        this.asyncExecutor = asyncExecutor;
     }
 
     @Override
@@ -45,24 +81,72 @@ public class HttpDataSinkFactory implements DataSinkFactory {
 
     @Override
     public @NotNull Result<Void> validateRequest(DataFlowRequest request) {
+        // checks the properties without creating the sink, which would load the delta index
         try {
-            createSink(request);
+            var params = requestParamsProvider.provideSinkParams(request);
+            segmentSize(request);
+            deltaMode(request, params.getContentType());
         } catch (Exception e) {
-            return Result.failure("Failed to build HttpDataSink: " + e.getMessage());
+            return Result.failure("Invalid HttpDataSink request: " + e.getMessage());
         }
         return Result.success();
     }
 
     @Override
     public DataSink createSink(DataFlowRequest request) {
+        var params = requestParamsProvider.provideSinkParams(request);
         return HttpDataSink.Builder.newInstance()
-                .params(requestParamsProvider.provideSinkParams(request))
+                .params(params)
                 .requestId(request.getId())
-                .partitionSize(partitionSize)
+                .partitionSize(partitioner.partitionSize(params.getBaseUrl()))
+                .partitioner(partitioner)
                 .httpClient(httpClient)
                 .executorService(executorService)
                 .monitor(monitor)
                 .requestFactory(requestFactory)
+                .checkpointStore(checkpointStore)
+                .segmentSize(segmentSize(request))
+                .delta(delta(request, params.getBaseUrl(), params.getContentType()))
+                .tracer(tracer)
+                .admission(admission)
+                .asyncExecutor(asyncExecutor)
                 .build();
     }
+
+    private @Nullable DeltaTransfer delta(DataFlowRequest request, String destinationUrl, String contentType) {
+        var mode = deltaMode(request, contentType);
+        if (mode == DeltaMode.OFF) {
+            return null;
+        }
+        var key = request.getDestinationDataAddress().getProperty(DELTA_KEY);
+        if (key == null) {
+            var source = HttpDataAddress.Builder.newInstance().copyFrom(request.getSourceDataAddress()).build();
+            key = sha256(source.getBaseUrl() + '|' + source.getPath() + '|'
+                    + source.getProperty(HttpDataSourceFactory.RESOURCE_PATH_TEMPLATE) + '|'
+                    + source.getProperty(HttpDataSourceFactory.RESOURCE_IDS) + "->" + destinationUrl);
+        }
+        return new DeltaTransfer(deltaIndexStore, key, mode);
+    }
+
+    private DeltaMode deltaMode(DataFlowRequest request, String contentType) {
+        var modeProperty = request.getDestinationDataAddress().getProperty(DELTA_MODE);
+        var mode = modeProperty == null ? DeltaMode.OFF : DeltaMode.parse(modeProperty);
+        if (mode == DeltaMode.TOMBSTONES && BuildingColumnarFormat.isSelectedBy(contentType)) {
+            throw new EdcException(format("DataFlowRequest %s: tombstones cannot be sent in %s", request.getId(), BuildingColumnarFormat.CONTENT_TYPE));
+        }
+        return mode;
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this runtime", e);
+        }
+    }
+
+    private int segmentSize(DataFlowRequest request) {
+        var segmentSize = request.getDestinationDataAddress().getProperty(RESUMABLE_SEGMENT_SIZE);
+        return segmentSize == null ? 0 : Integer.parseInt(segmentSize);
+    }
 }
@@ -1,26 +1,33 @@
 package org.eclipse.edc.mvd.pipeline;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
-
 import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
 import org.eclipse.edc.spi.EdcException;
 import org.eclipse.edc.spi.http.EdcHttpClient;
 import org.eclipse.edc.spi.monitor.Monitor;
-import org.eclipse.edc.mvd.model.Building;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
 import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.Span;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+
+import okhttp3.Request;
+import okhttp3.Response;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult.error;
 import static org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult.success;
 
@@ -28,6 +35,7 @@ public class HttpDataSource implements DataSource {
   private static final int FORBIDDEN = 401;
   private static final int NOT_AUTHORIZED = 403;
   private static final int NOT_FOUND = 404;
+  private static final String RETRY_AFTER = "Retry-After";
 
   private String name;
   private HttpRequestParams params;
@@ -35,94 +43,262 @@ public class HttpDataSource implements DataSource {
   private Monitor monitor;
   private EdcHttpClient httpClient;
   private HttpRequestFactory requestFactory;
+  private BuildingAnonymizer anonymizer;
+  private SingleFlight<String, StreamResult<byte[]>> singleFlight;
+  private HostRateLimiter rateLimiter;
+  private SourceRetryPolicy retryPolicy;
+  private TransferTracer tracer;
+  private AdmissionController admission;
+  private AsyncHttpExecutor asyncExecutor;
 
   @Override
   public StreamResult<Stream<Part>> openPartStream() {
     var request = requestFactory.toRequest(params);
-    monitor.debug(() -> "Executing HTTP request: " + request.url());
-    // NB: Do not close the response as the body input stream needs to be read after
-    // this method returns. The response closes the body stream.
-    try (var response = httpClient.execute(request)) {
-      if (response.isSuccessful()) {
-        var body = response.body();
-        if (body == null) {
-          throw new EdcException(format("Received empty response body transferring HTTP data for request %s: %s",
-              requestId, response.code()));
+    var owned = new AtomicReference<AdmissionController.Permit>();
+    // Concurrent transfers of the same resource with the same credentials share one upstream call and its anonymized
+    // body, each reading it through its own stream. The caller waits for the body either way, so the request is
+    // executed on its thread even with an asynchronous executor, which would only add a hop to a dispatcher thread.
+    var result = singleFlight.execute(flightKey(request), () -> fetch(request, owned));
+    if (result.failed()) {
+      return StreamResult.failure(result.getFailure());
+    }
+    return success(Stream.of(new HttpPart(name, new AdmittedBody(result.getContent(), owned.get()))));
+  }
+
+  /**
+   * Fetches and anonymizes the resource without holding the calling thread. With an asynchronous executor, only the
+   * admission wait, reading the body and anonymizing it run on the given executor, never on a dispatcher thread, and
+   * no thread is held while the request is in flight. Without one, the blocking fetch runs on the given executor. Cancelling the returned future abandons the fetch for this
+   * caller only; a fetch shared with other transfers keeps running.
+   *
+   * @param executor runs the blocking parts of the fetch
+   * @return the anonymized body, to be closed once it has been read.
+   */
+  CompletableFuture<StreamResult<AdmittedBody>> openAsync(Executor executor) {
+    var request = requestFactory.toRequest(params);
+    var owned = new AtomicReference<AdmissionController.Permit>();
+    var opened = new CompletableFuture<StreamResult<AdmittedBody>>();
+    if (asyncExecutor == null) {
+      executor.execute(() -> {
+        if (opened.isDone()) {
+          return;
         }
-        // Anonymize data in body
-        // String responseBodyString = body.string();
-        // InputStream processedBodyStream = processBody(responseBodyString);
-        // return success(Stream.of(new HttpPart(name, processedBodyStream)));
-        return success(Stream.of(new HttpPart(name, body.byteStream())));
-      } else {
         try {
-          if (NOT_AUTHORIZED == response.code() || FORBIDDEN == response.code()) {
-            return StreamResult.notAuthorized();
-          } else if (NOT_FOUND == response.code()) {
-            return StreamResult.notFound();
-          } else {
-            return error(format("Received code transferring HTTP data: %s - %s.", response.code(), response.message()));
-          }
-        } finally {
-          try {
-            response.close();
-          } catch (Exception e) {
-            monitor.info("Error closing failed response", e);
+          complete(opened, singleFlight.execute(flightKey(request), () -> fetch(request, owned)), owned.get());
+        } catch (RuntimeException e) {
+          opened.completeExceptionally(e);
+        }
+      });
+    } else {
+      singleFlight.executeAsync(flightKey(request), () -> fetchAsync(request, owned, executor)).whenComplete((result, failure) -> {
+        if (failure == null) {
+          complete(opened, result, owned.get());
+        } else {
+          opened.completeExceptionally(failure);
+        }
+      });
+    }
+    return opened;
+  }
+
+  private static void complete(CompletableFuture<StreamResult<AdmittedBody>> opened, StreamResult<byte[]> result,
+                               AdmissionController.Permit permit) {
+    var body = result.succeeded() ? new AdmittedBody(result.getContent(), permit) : null;
+    if (!opened.complete(body != null ? success(body) : StreamResult.failure(result.getFailure())) && body != null) {
+      // cancelled by the caller, nobody reads the body
+      body.close();
+    }
+  }
+
+  /**
+   * Fetches the resource, reserving the admission budget before each request is sent.
+   *
+   * @param owned receives the permit of a successful fetch, which then reserves the anonymized body
+   */
+  private StreamResult<byte[]> fetch(Request request, AtomicReference<AdmissionController.Permit> owned) {
+    var host = request.url().host();
+    try (var span = tracer.start(requestId, "source.fetch")) {
+      span.attribute("host", host);
+      for (var attempt = 0; ; attempt++) {
+        try (var rateLimit = span.child("source.rateLimit")) {
+          rateLimit.attribute("attempt", attempt);
+          rateLimiter.acquire(host);
+        }
+        var permit = admission.admit(-1);
+        if (permit == null) {
+          return rejected(span);
+        }
+        monitor.debug(() -> "Executing HTTP request: " + request.url());
+        var startNanos = System.nanoTime();
+        var startMillis = System.currentTimeMillis();
+        // The body is read completely for anonymization, so the response can be closed before this method returns.
+        try (var response = httpClient.execute(request)) {
+          var result = handle(response, attempt, span, startNanos, startMillis, permit);
+          if (result != null) {
+            return keep(result, permit, owned);
           }
+          permit.close();
+        } catch (IOException e) {
+          permit.close();
+          span.error(e.toString());
+          throw new EdcException(e);
+        } catch (RuntimeException e) {
+          permit.close();
+          throw e;
         }
       }
-    } catch (IOException e) {
-      throw new EdcException(e);
     }
   }
 
-  private ByteArrayInputStream processBody(String bodyAsString) throws IOException {
-    if (!isValidJson(bodyAsString)) {
-      monitor.warning("Invalid JSON format. Skipping anonymization.");
-      return new ByteArrayInputStream(bodyAsString.getBytes(StandardCharsets.UTF_8));
-    }
-    String anonymizedBodyAsString = anonymizeBuildingData(bodyAsString);
-    if (!isValidJson(anonymizedBodyAsString)) {
-      monitor.warning("Anonymization resulted in invalid JSON. Returning original body.");
-      return new ByteArrayInputStream(bodyAsString.getBytes(StandardCharsets.UTF_8));
+  private CompletableFuture<StreamResult<byte[]>> fetchAsync(Request request, AtomicReference<AdmissionController.Permit> owned,
+                                                             Executor executor) {
+    var span = tracer.startDetached(requestId, "source.fetch");
+    span.attribute("host", request.url().host());
+    return attemptAsync(request, 0, span, owned, executor).whenComplete((result, failure) -> {
+      if (failure != null) {
+        span.error(failure.toString());
+      }
+      span.close();
+    });
+  }
+
+  private CompletableFuture<StreamResult<byte[]>> attemptAsync(Request request, int attempt, Span span,
+                                                               AtomicReference<AdmissionController.Permit> owned,
+                                                               Executor executor) {
+    var wait = rateLimiter.reserve(request.url().host());
+    // the rate limit is awaited on a timer and the admission budget on the executor
+    var admitting = wait > 0 ? CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor) : executor;
+    return CompletableFuture.supplyAsync(() -> admission.admit(-1), admitting).thenCompose(permit -> {
+      if (permit == null) {
+        return CompletableFuture.completedFuture(rejected(span));
+      }
+      monitor.debug(() -> "Enqueueing HTTP request: " + request.url());
+      var startNanos = System.nanoTime();
+      var startMillis = System.currentTimeMillis();
+      // the response completes on a dispatcher thread, which must not read the body of a slow upstream or anonymize it
+      return asyncExecutor.execute(request).thenComposeAsync(response -> {
+        try (response) {
+          var result = handle(response, attempt, span, startNanos, startMillis, permit);
+          if (result != null) {
+            return CompletableFuture.completedFuture(keep(result, permit, owned));
+          }
+          permit.close();
+          return attemptAsync(request, attempt + 1, span, owned, executor);
+        } catch (IOException e) {
+          throw new CompletionException(new EdcException(e));
+        }
+      }, executor).whenComplete((result, failure) -> {
+        if (failure != null) {
+          permit.close();
+        }
+      });
+    });
+  }
+
+  /**
+   * Hands the permit of a successful fetch over to the anonymized body and returns it otherwise.
+   */
+  private static StreamResult<byte[]> keep(StreamResult<byte[]> result, AdmissionController.Permit permit,
+                                           AtomicReference<AdmissionController.Permit> owned) {
+    if (result.succeeded()) {
+      owned.set(permit);
+    } else {
+      permit.close();
     }
-    return new ByteArrayInputStream(anonymizedBodyAsString.getBytes(StandardCharsets.UTF_8));
+    return result;
   }
 
-  private String anonymizeBuildingData(String bodyAsString) {
-    final Gson gson = new Gson();
-    Building building;
-    try {
-      building = gson.fromJson(bodyAsString, Building.class);
-    } catch (JsonSyntaxException e) {
-      monitor.warning("Failed to process JSON body: Invalid JSON format or not a Building object.");
-      return bodyAsString;
-    }
-    if (building == null) {
-      monitor.warning("Building object is null after JSON parsing. Skipping anonymization.");
-      return bodyAsString;
-    }
-    List<String> providersToAnonymize = List.of("aggregationProvider");
-    // Perform anonymization only if the data trustee is in the list of providers to
-    // anonymize.
-    if (providersToAnonymize.contains(building.getDataTrustee())) {
-      String originalFirstName = building.getFirstName();
-      String anonymizedFirstName = originalFirstName == null ? null : "*".repeat(originalFirstName.length());
-      String originalLastName = building.getLastName();
-      String anonymizedLastName = originalLastName == null ? null : "*".repeat(originalLastName.length());
-      building.setFirstName(anonymizedFirstName);
-      building.setLastName(anonymizedLastName);
-    }
-    return gson.toJson(building);
+  private StreamResult<byte[]> rejected(Span span) {
+    span.error("over admission budget");
+    return error(format("Rejected HTTP data for request %s: data plane is over its in-flight budget", requestId));
   }
 
-  private boolean isValidJson(String jsonString) {
+  /**
+   * Reads and anonymizes a successful response or maps a failed one to its result.
+   *
+   * @param permit the reservation of the request, resized to the body while it is read and anonymized
+   * @return the result, null if the request should be retried once the rate limiter permits it.
+   */
+  private StreamResult<byte[]> handle(Response response, int attempt, Span span, long startNanos, long startMillis,
+                                      AdmissionController.Permit permit) throws IOException {
+    var host = response.request().url().host();
+    recordExchange(span, startNanos, startMillis, response.sentRequestAtMillis(), response.receivedResponseAtMillis());
+    span.attribute("status", response.code()).attribute("attempts", attempt + 1);
+    if (response.isSuccessful()) {
+      var body = response.body();
+      if (body == null) {
+        throw new EdcException(format("Received empty response body transferring HTTP data for request %s: %s",
+            requestId, response.code()));
+      }
+      permit.resize(body.contentLength());
+      byte[] raw;
+      try (var read = span.child("source.body")) {
+        raw = body.bytes();
+        read.attribute("bytes", raw.length);
+      }
+      try (var anonymize = span.child("anonymize")) {
+        var contentType = body.contentType();
+        var anonymized = anonymizer.anonymize(new ByteArrayInputStream(raw), contentType == null ? UTF_8 : contentType.charset(UTF_8));
+        anonymize.attribute("bytes", anonymized.length);
+        // only the anonymized body is held from here on
+        permit.resize(anonymized.length);
+        return success(anonymized);
+      }
+    }
+    if (retryPolicy.isRetryable(response.code())) {
+      var delay = retryPolicy.delay(attempt, response.header(RETRY_AFTER));
+      if (delay != null) {
+        monitor.debug(() -> format("Received %s from %s for request %s, retrying in %s ms",
+            response.code(), host, requestId, delay.toMillis()));
+        // all transfers to the host back off, not only this one
+        rateLimiter.backOff(host, delay);
+        return null;
+      }
+    }
+    span.error(format("%s - %s", response.code(), response.message()));
     try {
-      new Gson().fromJson(jsonString, Object.class);
-      return true;
-    } catch (JsonSyntaxException ex) {
-      return false;
+      if (NOT_AUTHORIZED == response.code() || FORBIDDEN == response.code()) {
+        return StreamResult.notAuthorized();
+      } else if (NOT_FOUND == response.code()) {
+        return StreamResult.notFound();
+      } else {
+        return error(format("Received code transferring HTTP data: %s - %s.", response.code(), response.message()));
+      }
+    } finally {
+      try {
+        response.close();
+      } catch (Exception e) {
+        monitor.info("Error closing failed response", e);
+      }
+    }
+  }
+
+  /**
+   * Splits the exchange into connecting and sending the request, and waiting for the response headers, using the
+   * timestamps OkHttp records on the response.
+   */
+  private static void recordExchange(Span span, long startNanos, long startMillis, long sentMillis, long receivedMillis) {
+    if (!span.isSampled()) {
+      return;
     }
+    var connectNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, sentMillis - startMillis));
+    span.record("source.connect", startNanos, connectNanos);
+    span.record("source.ttfb", startNanos + connectNanos, TimeUnit.MILLISECONDS.toNanos(Math.max(0, receivedMillis - sentMillis)));
+  }
+
+  /**
+   * Canonical form of the request and the anonymization plan. Headers are part of the key, so callers with different
+   * credentials never share a response.
+   */
+  private String flightKey(Request request) {
+    var key = new StringBuilder()
+        .append(request.method()).append(' ').append(request.url()).append('\n');
+    new TreeMap<>(request.headers().toMultimap())
+        .forEach((header, values) -> key.append(header).append(": ").append(values).append('\n'));
+    return key.append(params.getContentType()).append('\n')
+        .append(params.getBody()).append('\n')
+        .append(anonymizer.planVersion())
+        .toString();
   }
 
   private HttpDataSource() {
@@ -169,19 +345,78 @@ public class HttpDataSource implements DataSource {
       return this;
     }
 
+    public Builder anonymizer(BuildingAnonymizer anonymizer) {
+      dataSource.anonymizer = anonymizer;
+      return this;
+    }
+
+    public Builder singleFlight(SingleFlight<String, StreamResult<byte[]>> singleFlight) {
+      dataSource.singleFlight = singleFlight;
+      return this;
+    }
+
+    public Builder rateLimiter(HostRateLimiter rateLimiter) {
+      dataSource.rateLimiter = rateLimiter;
+      return this;
+    }
+
+    public Builder retryPolicy(SourceRetryPolicy retryPolicy) {
+      dataSource.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    public Builder tracer(TransferTracer tracer) {
+      dataSource.tracer = tracer;
+      return this;
+    }
+
+    public Builder admission(AdmissionController admission) {
+      dataSource.admission = admission;
+      return this;
+    }
+
+    public Builder asyncExecutor(AsyncHttpExecutor asyncExecutor) {
+      dataSource.asyncExecutor = asyncExecutor;
+      return this;
+    }
+
     public HttpDataSource build() {
       Objects.requireNonNull(dataSource.requestId, "requestId");
       Objects.requireNonNull(dataSource.httpClient, "httpClient");
       Objects.requireNonNull(dataSource.monitor, "monitor");
       Objects.requireNonNull(dataSource.requestFactory, "requestFactory");
+      Objects.requireNonNull(dataSource.anonymizer, "anonymizer");
+      Objects.requireNonNull(dataSource.singleFlight, "singleFlight");
+      Objects.requireNonNull(dataSource.rateLimiter, "rateLimiter");
+      Objects.requireNonNull(dataSource.retryPolicy, "retryPolicy");
+      Objects.requireNonNull(dataSource.tracer, "tracer");
+      Objects.requireNonNull(dataSource.admission, "admission");
       return dataSource;
     }
   }
 
-  private record HttpPart(String name, InputStream content) implements Part {
+  /**
+   * The anonymized body, whose admission permit is returned when its stream or the part is closed.
+   */
+  private record HttpPart(String name, AdmittedBody body) implements AdmittedPart {
+    @Override
+    public long size() {
+      return body.bytes().length;
+    }
+
     @Override
     public InputStream openStream() {
-      return content;
+      return new ByteArrayInputStream(body.bytes()) {
+        @Override
+        public void close() {
+          body.close();
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      body.close();
     }
   }
 }
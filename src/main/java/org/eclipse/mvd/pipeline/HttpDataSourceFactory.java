@@ -3,16 +3,34 @@ package org.eclipse.edc.mvd.pipeline;
 import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
 import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSourceFactory;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.eclipse.edc.spi.EdcException;
 import org.eclipse.edc.spi.http.EdcHttpClient;
 import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.result.Result;
 import org.eclipse.edc.spi.types.domain.HttpDataAddress;
 import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.anonymize.WindowedKAnonymizer;
 import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
 
 /**
  * Instantiates {@link HttpDataSource}s for requests whose source data type is {@link HttpDataAddress#HTTP_DATA}.
+ * <p>
+ * Source addresses carrying a {@link #RESOURCE_PATH_TEMPLATE} and {@link #RESOURCE_IDS} get a
+ * {@link MultiResourceHttpDataSource} fetching one resource per ID instead.
+ * <p>
+ * When k-anonymity is enabled, by default or for the asset with the {@link #ANONYMITY_K} property, the source is
+ * wrapped in a {@link KAnonymousDataSource}. An asset can only raise the configured k, never lower it.
  */
 public class HttpDataSourceFactory implements DataSourceFactory {
 
@@ -20,13 +38,42 @@ public class HttpDataSourceFactory implements DataSourceFactory {
     private final HttpRequestParamsProvider requestParamsProvider;
     private final Monitor monitor;
     private final HttpRequestFactory requestFactory;
+    private final BuildingAnonymizer anonymizer;
+    private final HostRateLimiter rateLimiter;
+    private final SourceRetryPolicy retryPolicy;
+    private final SingleFlight<String, StreamResult<byte[]>> singleFlight = new SingleFlight<>();
+    private final ExecutorService resourceExecutorService;
+    private final TransferTracer tracer;
+    private final WindowedKAnonymizer kAnonymizer;
+    private final AdmissionController admission;
+    private final AsyncHttpExecutor asyncExecutor;
     private final static String HTTP_DATA_TYPE = "HttpDataAnonymize";
+    public static final String RESOURCE_PATH_TEMPLATE = "resourcePathTemplate";
+    public static final String RESOURCE_IDS = "resourceIds";
+    public static final String RESOURCE_PARALLELISM = "resourceParallelism";
+    public static final String RESOURCE_ORDER = "resourceOrder";
+    public static final String RESOURCE_FORMAT = "resourceFormat";
+    private static final String RESOURCE_ID_PLACEHOLDER = "{id}";
+    private static final Pattern RESOURCE_ID_PATTERN = Pattern.compile("[A-Za-z0-9._~-]+");
+    public static final String ANONYMITY_K = "anonymityK";
+    private static final int DEFAULT_RESOURCE_PARALLELISM = 4;
 
-    public HttpDataSourceFactory(EdcHttpClient httpClient, HttpRequestParamsProvider requestParamsProvider, Monitor monitor, HttpRequestFactory requestFactory) {
+    public HttpDataSourceFactory(EdcHttpClient httpClient, HttpRequestParamsProvider requestParamsProvider, Monitor monitor, HttpRequestFactory requestFactory, BuildingAnonymizer anonymizer,
+                                 HostRateLimiter rateLimiter, SourceRetryPolicy retryPolicy, ExecutorService resourceExecutorService,
+                                 TransferTracer tracer, WindowedKAnonymizer kAnonymizer, AdmissionController admission,
+                                 @Nullable AsyncHttpExecutor asyncExecutor) {
         this.httpClient = httpClient;
         this.requestParamsProvider = requestParamsProvider;
         this.monitor = monitor;
         this.requestFactory = requestFactory;
+        this.anonymizer = anonymizer;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.resourceExecutorService = resourceExecutorService;
+        this.tracer = tracer;
+        this.kAnonymizer = kAnonymizer;
+        this.admission = admission;
+        this.asyncExecutor = asyncExecutor;
     }
 
     @Override
@@ -46,6 +93,57 @@ public class HttpDataSourceFactory implements DataSourceFactory {
 
     @Override
     public DataSource createSource(DataFlowRequest request) {
+        var k = request.getSourceDataAddress().getProperty(ANONYMITY_K);
+        var anonymizer = k == null ? kAnonymizer : kAnonymizer.withK(Math.max(kAnonymizer.policy().k(), Integer.parseInt(k)));
+        var source = createHttpSource(request);
+        return anonymizer.policy().isEnabled() ? new KAnonymousDataSource(source, anonymizer) : source;
+    }
+
+    private DataSource createHttpSource(DataFlowRequest request) {
+        var sourceAddress = request.getSourceDataAddress();
+        var pathTemplate = sourceAddress.getProperty(RESOURCE_PATH_TEMPLATE);
+        if (pathTemplate == null) {
+            return createResourceSource(request);
+        }
+        var ids = sourceAddress.getProperty(RESOURCE_IDS);
+        if (ids == null) {
+            throw new EdcException(format("DataFlowRequest %s: '%s' property is missing in multi-resource data address", request.getId(), RESOURCE_IDS));
+        }
+        var resources = new ArrayList<HttpDataSource>();
+        for (var id : ids.split(",")) {
+            var resourceId = id.trim();
+            // the ID becomes a path segment: no separators, dot segments or percent-encoded characters
+            if (!RESOURCE_ID_PATTERN.matcher(resourceId).matches() || ".".equals(resourceId) || "..".equals(resourceId)) {
+                throw new EdcException(format("DataFlowRequest %s: invalid resource ID '%s'", request.getId(), resourceId));
+            }
+            var resourceAddress = HttpDataAddress.Builder.newInstance()
+                    .copyFrom(sourceAddress)
+                    .path(pathTemplate.replace(RESOURCE_ID_PLACEHOLDER, resourceId))
+                    .build();
+            var resourceRequest = DataFlowRequest.Builder.newInstance()
+                    .id(request.getId())
+                    .processId(request.getProcessId())
+                    .sourceDataAddress(resourceAddress)
+                    .destinationDataAddress(request.getDestinationDataAddress())
+                    .properties(request.getProperties())
+                    .traceContext(request.getTraceContext())
+                    .build();
+            resources.add(createResourceSource(resourceRequest));
+        }
+        var parallelism = sourceAddress.getProperty(RESOURCE_PARALLELISM);
+        var order = sourceAddress.getProperty(RESOURCE_ORDER);
+        var mergeFormat = sourceAddress.getProperty(RESOURCE_FORMAT);
+        return MultiResourceHttpDataSource.Builder.newInstance()
+                .name(HttpDataAddress.Builder.newInstance().copyFrom(sourceAddress).build().getName())
+                .resources(resources)
+                .executorService(resourceExecutorService)
+                .parallelism(parallelism == null ? DEFAULT_RESOURCE_PARALLELISM : Integer.parseInt(parallelism))
+                .order(order == null ? MultiResourceHttpDataSource.Order.INPUT : MultiResourceHttpDataSource.Order.parse(order))
+                .format(mergeFormat == null ? MultiResourceHttpDataSource.Format.JSON_ARRAY : MultiResourceHttpDataSource.Format.parse(mergeFormat))
+                .build();
+    }
+
+    private HttpDataSource createResourceSource(DataFlowRequest request) {
         var dataAddress = HttpDataAddress.Builder.newInstance()
                 .copyFrom(request.getSourceDataAddress())
                 .build();
@@ -56,6 +154,13 @@ public class HttpDataSourceFactory implements DataSourceFactory {
                 .name(dataAddress.getName())
                 .params(requestParamsProvider.provideSourceParams(request))
                 .requestFactory(requestFactory)
+                .anonymizer(anonymizer)
+                .singleFlight(singleFlight)
+                .rateLimiter(rateLimiter)
+                .retryPolicy(retryPolicy)
+                .tracer(tracer)
+                .admission(admission)
+                .asyncExecutor(asyncExecutor)
                 .build();
     }
 }
@@ -0,0 +1,56 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.eclipse.edc.mvd.anonymize.WindowedKAnonymizer;
+
+import java.io.InputStream;
+import java.util.stream.Stream;
+
+import static org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult.success;
+
+/**
+ * Passes the parts of another source through the windowed k-anonymity generalization while they are read.
+ */
+public class KAnonymousDataSource implements DataSource {
+
+    private final DataSource source;
+    private final WindowedKAnonymizer anonymizer;
+
+    public KAnonymousDataSource(DataSource source, WindowedKAnonymizer anonymizer) {
+        this.source = source;
+        this.anonymizer = anonymizer;
+    }
+
+    @Override
+    public StreamResult<Stream<Part>> openPartStream() {
+        var result = source.openPartStream();
+        if (result.failed()) {
+            return result;
+        }
+        return success(result.getContent().map(GeneralizedPart::new));
+    }
+
+    private class GeneralizedPart implements Part {
+        private final Part part;
+
+        GeneralizedPart(Part part) {
+            this.part = part;
+        }
+
+        @Override
+        public String name() {
+            return part.name();
+        }
+
+        @Override
+        public InputStream openStream() {
+            return anonymizer.generalize(part.openStream());
+        }
+
+        @Override
+        public void close() throws Exception {
+            part.close();
+        }
+    }
+}
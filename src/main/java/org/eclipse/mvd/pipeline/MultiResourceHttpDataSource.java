@@ -0,0 +1,385 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamFailure;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult.success;
+
+/**
+ * Fetches many resources, one {@link HttpDataSource} each, and merges their anonymized bodies into a single part.
+ * <p>
+ * Fetching starts when the part stream is opened and is lazy: at most {@code parallelism} resources are fetched or
+ * waiting to be read at any time, and the next one is started whenever the reader takes one. Bodies are emitted in
+ * input order or in completion order, as a JSON array or as newline-delimited JSON. Resources with an
+ * {@link AsyncHttpExecutor} are fetched without holding an executor thread while their requests are in flight.
+ * <p>
+ * The part stream is only returned once the body emitted first is available, so a failure of that resource, e.g.
+ * {@code 401}, {@code 403} or {@code 404}, fails the transfer with its reason before any output. A resource failing
+ * later fails reading the merged stream after the bodies emitted before it, which the sink reports as a failed write.
+ * Each body's admission reservation is returned once it has been read, and closing the merged stream cancels the
+ * fetches still in flight.
+ */
+public class MultiResourceHttpDataSource implements DataSource {
+
+    private String name;
+    private List<HttpDataSource> resources;
+    private ExecutorService executorService;
+    private int parallelism;
+    private Order order;
+    private Format format;
+
+    @Override
+    public StreamResult<Stream<Part>> openPartStream() {
+        var fetches = new ResourceFetches();
+        var failure = fetches.awaitFirst();
+        if (failure != null) {
+            fetches.cancel();
+            return StreamResult.failure(failure);
+        }
+        return success(Stream.of(new MergedPart(name, fetches)));
+    }
+
+    private static AdmittedBody bodyOf(StreamResult<AdmittedBody> result) {
+        if (result.failed()) {
+            throw new CompletionException(new ResourceFailedException(result.getFailure()));
+        }
+        return result.getContent();
+    }
+
+    private static StreamFailure failureOf(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof ResourceFailedException resourceFailed) {
+            return resourceFailed.failure;
+        }
+        return new StreamFailure(List.of(format("Failed to fetch resource: %s", cause)), StreamFailure.Reason.GENERAL_ERROR);
+    }
+
+    private MultiResourceHttpDataSource() {
+    }
+
+    /**
+     * The order in which the resource bodies are emitted.
+     */
+    public enum Order {
+        INPUT,
+        COMPLETION;
+
+        public static Order parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * How the resource bodies are merged.
+     */
+    public enum Format {
+        JSON_ARRAY("[", ",", "]"),
+        NDJSON("", "\n", "\n");
+
+        private final byte[] prefix;
+        private final byte[] separator;
+        private final byte[] suffix;
+
+        Format(String prefix, String separator, String suffix) {
+            this.prefix = prefix.getBytes(UTF_8);
+            this.separator = separator.getBytes(UTF_8);
+            this.suffix = suffix.getBytes(UTF_8);
+        }
+
+        public static Format parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * The fetches of one reading of the merged part. Starting a fetch and cancelling are synchronized, as the part may
+     * be closed on another thread than the one reading it.
+     */
+    private class ResourceFetches {
+        private final List<CompletableFuture<AdmittedBody>> fetches = new ArrayList<>();
+        private final List<CompletableFuture<StreamResult<AdmittedBody>>> requests = new ArrayList<>();
+        private final BlockingQueue<CompletableFuture<AdmittedBody>> completed = new LinkedBlockingQueue<>();
+        private CompletableFuture<AdmittedBody> head;
+        private int started;
+        private int taken;
+        private boolean cancelled;
+
+        ResourceFetches() {
+            for (var i = 0; i < resources.size(); i++) {
+                fetches.add(new CompletableFuture<>());
+            }
+            while (started < Math.min(parallelism, resources.size())) {
+                startNext();
+            }
+        }
+
+        /**
+         * Waits for the body that is emitted first, without taking it.
+         *
+         * @return the failure of its resource, null if the body is available or there are no resources.
+         */
+        @Nullable StreamFailure awaitFirst() {
+            if (!hasNext()) {
+                return null;
+            }
+            try {
+                head = order == Order.INPUT ? fetches.get(0) : completed.take();
+                head.join();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return failureOf(e);
+            } catch (CompletionException | CancellationException e) {
+                return failureOf(e);
+            }
+        }
+
+        boolean hasNext() {
+            return taken < resources.size();
+        }
+
+        /**
+         * Takes the next body, which the caller closes once it has been read.
+         */
+        AdmittedBody next() throws IOException {
+            CompletableFuture<AdmittedBody> fetch;
+            try {
+                fetch = head != null ? head : order == Order.INPUT ? fetches.get(taken) : completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for resource", e);
+            }
+            head = null;
+            taken++;
+            startNext();
+            try {
+                return fetch.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            } catch (CancellationException e) {
+                throw new IOException("Resource fetch was cancelled", e);
+            }
+        }
+
+        /**
+         * Cancels the fetches in flight and starts no further ones, and releases the bodies fetched already. Requests
+         * shared with other transfers keep running for them.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            requests.forEach(request -> request.cancel(true));
+            for (var fetch : fetches) {
+                if (!fetch.cancel(true) && !fetch.isCompletedExceptionally()) {
+                    fetch.join().close();
+                }
+            }
+        }
+
+        private synchronized void startNext() {
+            if (cancelled || started >= resources.size()) {
+                return;
+            }
+            var resource = resources.get(started);
+            var fetch = fetches.get(started++);
+            fetch.whenComplete((body, failure) -> completed.add(fetch));
+            var request = resource.openAsync(executorService);
+            requests.add(request);
+            request.thenApply(MultiResourceHttpDataSource::bodyOf)
+                    .whenComplete((body, failure) -> {
+                        if (failure == null) {
+                            if (!fetch.complete(body)) {
+                                body.close();
+                            }
+                        } else {
+                            fetch.completeExceptionally(failure);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Concatenates the resource bodies with the prefix, separators and suffix of the format.
+     */
+    private class MergedInputStream extends InputStream {
+        private final ResourceFetches fetches;
+        private AdmittedBody body;
+        private InputStream current;
+        private boolean finished;
+        private boolean first = true;
+
+        MergedInputStream(ResourceFetches fetches) {
+            this.fetches = fetches;
+            this.current = new ByteArrayInputStream(format.prefix);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (true) {
+                var read = current.read(buffer, offset, length);
+                if (read != -1 || finished) {
+                    return read;
+                }
+                advance();
+            }
+        }
+
+        private void advance() throws IOException {
+            releaseBody();
+            if (!fetches.hasNext()) {
+                current = new ByteArrayInputStream(format.suffix);
+                finished = true;
+                return;
+            }
+            body = fetches.next();
+            var element = new ByteArrayInputStream(body.bytes());
+            current = first ? element : new SequenceInputStream(new ByteArrayInputStream(format.separator), element);
+            first = false;
+        }
+
+        private void releaseBody() {
+            if (body != null) {
+                body.close();
+                body = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            releaseBody();
+            fetches.cancel();
+            current = InputStream.nullInputStream();
+            finished = true;
+        }
+    }
+
+    /**
+     * The merged part. Its first stream reads the fetches started by {@link #openPartStream()}, streams opened again,
+     * e.g. to retry a segmented upload, fetch the resources again.
+     */
+    private class MergedPart implements AdmittedPart {
+        private final String name;
+        private final AtomicReference<ResourceFetches> started;
+
+        MergedPart(String name, ResourceFetches started) {
+            this.name = name;
+            this.started = new AtomicReference<>(started);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public InputStream openStream() {
+            var fetches = started.getAndSet(null);
+            return new MergedInputStream(fetches != null ? fetches : new ResourceFetches());
+        }
+
+        /**
+         * Cancels the fetches started by {@link #openPartStream()} if the part was never read, returning their
+         * admission reservations.
+         */
+        @Override
+        public void close() {
+            var fetches = started.getAndSet(null);
+            if (fetches != null) {
+                fetches.cancel();
+            }
+        }
+    }
+
+    /**
+     * The failure result of a resource, kept so its reason is reported when it fails the part.
+     */
+    private static class ResourceFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final StreamFailure failure;
+
+        ResourceFailedException(StreamFailure failure) {
+            super(format("Failed to fetch resource: %s", failure.getFailureDetail()));
+            this.failure = failure;
+        }
+    }
+
+    public static class Builder {
+        private final MultiResourceHttpDataSource dataSource;
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        private Builder() {
+            dataSource = new MultiResourceHttpDataSource();
+        }
+
+        public Builder name(String name) {
+            dataSource.name = name;
+            return this;
+        }
+
+        public Builder resources(List<HttpDataSource> resources) {
+            dataSource.resources = List.copyOf(resources);
+            return this;
+        }
+
+        public Builder executorService(ExecutorService executorService) {
+            dataSource.executorService = executorService;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            dataSource.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder order(Order order) {
+            dataSource.order = order;
+            return this;
+        }
+
+        public Builder format(Format format) {
+            dataSource.format = format;
+            return this;
+        }
+
+        public MultiResourceHttpDataSource build() {
+            Objects.requireNonNull(dataSource.resources, "resources");
+            Objects.requireNonNull(dataSource.executorService, "executorService");
+            Objects.requireNonNull(dataSource.order, "order");
+            Objects.requireNonNull(dataSource.format, "format");
+            if (dataSource.parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller executes the call, callers arriving while it is in
+ * flight wait for and share its outcome. Nothing is cached once the call has completed.
+ *
+ * @param <K> the key type
+ * @param <V> the result type, shared between callers and therefore treated as immutable
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call unless a call with the same key is in flight, in which case its outcome is returned.
+     *
+     * @param key  the key identifying equivalent calls
+     * @param call the call to execute
+     * @return the result of the call.
+     */
+    public V execute(K key, Supplier<V> call) {
+        var flight = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            var value = call.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Starts the asynchronous call unless a call with the same key is in flight, in which case its outcome is shared.
+     *
+     * @param key  the key identifying equivalent calls
+     * @param call starts the call
+     * @return the outcome of the call.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        var flight = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing;
+        }
+        flight.whenComplete((value, failure) -> inFlight.remove(key, flight));
+        try {
+            call.get().whenComplete((value, failure) -> {
+                if (failure == null) {
+                    flight.complete(value);
+                } else {
+                    flight.completeExceptionally(failure);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+        }
+        return flight;
+    }
+
+    private V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Decides whether and when a source request answered with 429 or 503 is retried.
+ * <p>
+ * The delay is taken from the {@code Retry-After} header, given either in seconds or as HTTP date, and falls back to an
+ * exponential back-off starting at {@code initialDelay}. Delays longer than {@code maxDelay} are not waited for.
+ *
+ * @param maxRetries   the maximum number of retries per request
+ * @param initialDelay the back-off of the first retry when no {@code Retry-After} is given
+ * @param maxDelay     the longest delay worth waiting for
+ */
+public record SourceRetryPolicy(int maxRetries, Duration initialDelay, Duration maxDelay) {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    public boolean isRetryable(int code) {
+        return code == TOO_MANY_REQUESTS || code == SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Returns the delay before the next attempt.
+     *
+     * @param attempt    the number of the failed attempt, starting at 0
+     * @param retryAfter the {@code Retry-After} header of the response, may be null
+     * @return the delay, null if the request should not be retried.
+     */
+    public @Nullable Duration delay(int attempt, @Nullable String retryAfter) {
+        if (attempt >= maxRetries) {
+            return null;
+        }
+        var delay = parseRetryAfter(retryAfter);
+        if (delay == null) {
+            delay = initialDelay.multipliedBy(1L << Math.min(attempt, 30));
+        }
+        return delay.compareTo(maxDelay) > 0 ? null : delay;
+    }
+
+    private static @Nullable Duration parseRetryAfter(@Nullable String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        var value = retryAfter.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // not delay-seconds, try HTTP-date
+        }
+        try {
+            var date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            var delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reads a source stream once and replays it to a fixed number of readers.
+ * <p>
+ * Chunks are kept until every attached reader has consumed them, and the pump stops reading from the source while
+ * the slowest attached reader lags more than {@code maxLag} bytes behind. Closing a reader detaches it, so a failed
+ * consumer does not stall the others.
+ */
+class TeeBuffer {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final long maxLag;
+    private final List<Reader> readers = new ArrayList<>();
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private long bufferStart;
+    private long writePosition;
+    private boolean finished;
+    private IOException failure;
+
+    TeeBuffer(int readerCount, long maxLag) {
+        if (maxLag <= 0) {
+            throw new IllegalArgumentException("maxLag must be positive: " + maxLag);
+        }
+        this.maxLag = maxLag;
+        for (var i = 0; i < readerCount; i++) {
+            readers.add(new Reader());
+        }
+    }
+
+    /**
+     * The readers of this buffer, one per consumer.
+     */
+    List<Reader> readers() {
+        return List.copyOf(readers);
+    }
+
+    /**
+     * Copies the source into the buffer until it is exhausted or all readers are closed. Blocks while the slowest
+     * reader lags behind by more than the configured maximum.
+     *
+     * @param source the stream to replay, closed when done
+     */
+    void pump(InputStream source) {
+        try (source) {
+            var chunk = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = source.readNBytes(chunk, 0, chunk.length)) > 0) {
+                if (!append(read == chunk.length ? chunk : Arrays.copyOf(chunk, read))) {
+                    return;
+                }
+                chunk = new byte[CHUNK_SIZE];
+            }
+            complete(null);
+        } catch (IOException e) {
+            complete(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(new IOException("Interrupted reading fan-out source", e));
+        } catch (RuntimeException e) {
+            complete(new IOException("Failed reading fan-out source", e));
+            throw e;
+        }
+    }
+
+    private boolean append(byte[] chunk) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!readers.isEmpty() && writePosition - minReaderPosition() >= maxLag) {
+                changed.await();
+            }
+            if (readers.isEmpty()) {
+                return false;
+            }
+            chunks.addLast(chunk);
+            writePosition += chunk.length;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(IOException failure) {
+        lock.lock();
+        try {
+            this.finished = true;
+            this.failure = failure;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long minReaderPosition() {
+        var min = writePosition;
+        for (var reader : readers) {
+            min = Math.min(min, reader.position);
+        }
+        return min;
+    }
+
+    /**
+     * Drops the chunks every attached reader has consumed. Must be called with the lock held.
+     */
+    private void release() {
+        var min = minReaderPosition();
+        while (!chunks.isEmpty() && bufferStart + chunks.peekFirst().length <= min) {
+            bufferStart += chunks.removeFirst().length;
+        }
+    }
+
+    class Reader extends InputStream {
+        private long position;
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            var single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (!closed && position >= writePosition && !finished) {
+                    changed.await();
+                }
+                if (closed) {
+                    throw new IOException("Fan-out reader closed");
+                }
+                if (failure != null) {
+                    throw new IOException("Failed reading fan-out source", failure);
+                }
+                if (position >= writePosition) {
+                    return -1;
+                }
+                var chunkStart = bufferStart;
+                for (var chunk : chunks) {
+                    if (position < chunkStart + chunk.length) {
+                        var chunkOffset = (int) (position - chunkStart);
+                        var count = Math.min(length, chunk.length - chunkOffset);
+                        System.arraycopy(chunk, chunkOffset, target, offset, count);
+                        position += count;
+                        release();
+                        changed.signalAll();
+                        return count;
+                    }
+                    chunkStart += chunk.length;
+                }
+                throw new IllegalStateException("Fan-out chunk at position " + position + " has already been released");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted reading fan-out buffer", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    readers.remove(this);
+                    release();
+                    changed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.eclipse.edc.mvd.tracing;
+
+import com.google.gson.stream.JsonWriter;
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Appends spans to a file as newline-delimited JSON.
+ * <p>
+ * Spans are handed to a background writer through a bounded queue; when the writer falls behind, spans are dropped
+ * and counted instead of slowing down the transfer.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final Monitor monitor;
+    private final BlockingQueue<SpanData> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Writer writer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public FileSpanExporter(Path file, int queueCapacity, Monitor monitor) {
+        this.monitor = monitor;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND);
+        } catch (IOException e) {
+            throw new EdcException(format("Failed to open trace file %s", file), e);
+        }
+        thread = new Thread(this::drain, "anonymize-span-exporter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void export(SpanData span) {
+        if (!queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        // not interrupted, an interrupt closes the file channel in the middle of a write
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var droppedSpans = dropped.sum();
+        if (droppedSpans > 0) {
+            monitor.warning(format("Dropped %s spans because the trace file writer fell behind", droppedSpans));
+        }
+    }
+
+    long droppedSpans() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        var batch = new ArrayList<SpanData>(BATCH_SIZE);
+        try (writer) {
+            while (running || !queue.isEmpty()) {
+                var first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - batch.size());
+                for (var span : batch) {
+                    write(span);
+                }
+                writer.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            monitor.severe("Failed writing spans, tracing to file stops", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(SpanData span) throws IOException {
+        // JsonWriter does not buffer, so one per span adds no copies; it must not be closed as that closes the file
+        var json = new JsonWriter(writer);
+        json.beginObject()
+                .name("traceId").value(span.traceId())
+                .name("spanId").value(Long.toHexString(span.spanId()))
+                .name("parentSpanId").value(span.parentSpanId() == 0 ? null : Long.toHexString(span.parentSpanId()))
+                .name("name").value(span.name())
+                .name("startEpochMicros").value(span.startEpochMicros())
+                .name("durationNanos").value(span.durationNanos());
+        json.name("attributes").beginObject();
+        for (var attribute : span.attributes().entrySet()) {
+            json.name(attribute.getKey()).value(attribute.getValue());
+        }
+        json.endObject();
+        if (span.error() != null) {
+            json.name("error").value(span.error());
+        }
+        json.endObject();
+        writer.write('\n');
+    }
+}
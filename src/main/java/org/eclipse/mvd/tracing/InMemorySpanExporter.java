@@ -0,0 +1,51 @@
+package org.eclipse.edc.mvd.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent spans in a fixed-size ring buffer, overwriting the oldest ones.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final AtomicReferenceArray<SpanData> spans;
+    private final AtomicLong next = new AtomicLong();
+
+    public InMemorySpanExporter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.spans = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void export(SpanData span) {
+        spans.set((int) (next.getAndIncrement() % spans.length()), span);
+    }
+
+    /**
+     * The retained spans, oldest first.
+     */
+    public List<SpanData> spans() {
+        var end = next.get();
+        var result = new ArrayList<SpanData>();
+        for (var i = Math.max(0, end - spans.length()); i < end; i++) {
+            var span = spans.get((int) (i % spans.length()));
+            if (span != null) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The retained spans of one transfer, oldest first.
+     *
+     * @param traceId the {@code DataFlowRequest} id
+     */
+    public List<SpanData> spans(String traceId) {
+        return spans().stream().filter(span -> span.traceId().equals(traceId)).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package org.eclipse.edc.mvd.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A stage of a transfer, timed from {@link TransferTracer#start(String, String)} until {@link #close()}. Spans of
+ * transfers that are not sampled are a shared no-op instance.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, 0, 0, null, 0, null);
+
+    private final TransferTracer tracer;
+    private final String traceId;
+    private final long spanId;
+    private final long parentSpanId;
+    private final String name;
+    private final long startNanos;
+    private final Span parent;
+    private Map<String, String> attributes;
+    private String error;
+
+    Span(TransferTracer tracer, String traceId, long spanId, long parentSpanId, String name, long startNanos, Span parent) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.parent = parent;
+    }
+
+    public boolean isSampled() {
+        return tracer != null;
+    }
+
+    /**
+     * Adds a detail of the stage.
+     */
+    public Span attribute(String key, Object value) {
+        if (tracer != null) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * Marks the stage as failed.
+     */
+    public Span error(String error) {
+        if (tracer != null) {
+            this.error = error;
+        }
+        return this;
+    }
+
+    /**
+     * Starts a child stage that may be closed on any thread, unlike spans started through the tracer.
+     *
+     * @param name the stage
+     * @return the child span, a no-op if this span is.
+     */
+    public Span child(String name) {
+        if (tracer == null) {
+            return this;
+        }
+        return new Span(tracer, traceId, tracer.nextSpanId(), spanId, name, System.nanoTime(), null);
+    }
+
+    /**
+     * Records a finished child stage whose timing was measured elsewhere, e.g. taken from response timestamps.
+     *
+     * @param name          the stage
+     * @param startNanos    the {@link System#nanoTime()} the stage started at
+     * @param durationNanos the duration of the stage
+     */
+    public void record(String name, long startNanos, long durationNanos) {
+        if (tracer != null) {
+            tracer.export(new Span(tracer, traceId, tracer.nextSpanId(), spanId, name, startNanos, null), durationNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (tracer != null) {
+            tracer.end(this, System.nanoTime() - startNanos);
+        }
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    long spanId() {
+        return spanId;
+    }
+
+    long parentSpanId() {
+        return parentSpanId;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    Map<String, String> attributes() {
+        return attributes == null ? Map.of() : attributes;
+    }
+
+    String error() {
+        return error;
+    }
+}
@@ -0,0 +1,21 @@
+package org.eclipse.edc.mvd.tracing;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * A finished span.
+ *
+ * @param traceId          the {@code DataFlowRequest} id the span belongs to
+ * @param spanId           identifies the span within the runtime
+ * @param parentSpanId     the enclosing span on the same thread, 0 for a root span
+ * @param name             the stage, e.g. {@code source.body}
+ * @param startEpochMicros wall-clock start in microseconds since the epoch
+ * @param durationNanos    duration in nanoseconds
+ * @param attributes       stage details such as byte counts or status codes
+ * @param error            the failure of the stage, null if it succeeded
+ */
+public record SpanData(String traceId, long spanId, long parentSpanId, String name, long startEpochMicros, long durationNanos,
+                       Map<String, String> attributes, @Nullable String error) {
+}
@@ -0,0 +1,21 @@
+package org.eclipse.edc.mvd.tracing;
+
+/**
+ * Receives the finished spans of sampled transfers. Exporters are called on the transfer threads, so they must not
+ * block.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports a finished span.
+     *
+     * @param span the span
+     */
+    void export(SpanData span);
+
+    /**
+     * Flushes and releases the exporter on shutdown.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,109 @@
+package org.eclipse.edc.mvd.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the spans of transfers, correlated by {@code DataFlowRequest} id.
+ * <p>
+ * Sampling is decided per request id, so a sampled transfer is traced in every stage and on every thread while the
+ * others only pay for a hash. Spans started on a thread while another span of the same transfer is open on it become
+ * children of that span.
+ */
+public class TransferTracer {
+
+    /**
+     * Tracer sampling no transfer.
+     */
+    public static final TransferTracer DISABLED = new TransferTracer(0, span -> { });
+
+    private static final long SAMPLE_BUCKETS = 10_000;
+
+    private final long sampledBuckets;
+    private final SpanExporter exporter;
+    private final AtomicLong spanIds = new AtomicLong();
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final long epochMicrosAtStart = System.currentTimeMillis() * 1000;
+    private final long nanosAtStart = System.nanoTime();
+
+    /**
+     * @param sampleRate fraction of transfers to trace, between 0 and 1
+     * @param exporter   receives the finished spans
+     */
+    public TransferTracer(double sampleRate, SpanExporter exporter) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampledBuckets = Math.round(sampleRate * SAMPLE_BUCKETS);
+        this.exporter = exporter;
+    }
+
+    public SpanExporter exporter() {
+        return exporter;
+    }
+
+    /**
+     * Starts a span of a transfer. Must be closed on the thread it was started on.
+     *
+     * @param requestId the {@code DataFlowRequest} id
+     * @param name      the stage
+     * @return the span, a no-op if the transfer is not sampled.
+     */
+    public Span start(String requestId, String name) {
+        if (!isSampled(requestId)) {
+            return Span.NOOP;
+        }
+        var parent = current.get();
+        var parentSpanId = parent != null && parent.traceId().equals(requestId) ? parent.spanId() : 0;
+        var span = new Span(this, requestId, nextSpanId(), parentSpanId, name, System.nanoTime(), parent);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Starts a span of a transfer that is not bound to the current thread, e.g. for a stage completing on a callback.
+     * It does not become the parent of spans started on this thread.
+     *
+     * @param requestId the {@code DataFlowRequest} id
+     * @param name      the stage
+     * @return the span, a no-op if the transfer is not sampled.
+     */
+    public Span startDetached(String requestId, String name) {
+        if (!isSampled(requestId)) {
+            return Span.NOOP;
+        }
+        return new Span(this, requestId, nextSpanId(), 0, name, System.nanoTime(), null);
+    }
+
+    private boolean isSampled(String requestId) {
+        if (sampledBuckets == 0 || requestId == null) {
+            return false;
+        }
+        if (sampledBuckets == SAMPLE_BUCKETS) {
+            return true;
+        }
+        // spread the string hash, similar ids would otherwise land in neighbouring buckets
+        var hash = requestId.hashCode() * 0x9E3779B97F4A7C15L;
+        return Long.remainderUnsigned(hash ^ (hash >>> 32), SAMPLE_BUCKETS) < sampledBuckets;
+    }
+
+    long nextSpanId() {
+        return spanIds.incrementAndGet();
+    }
+
+    void end(Span span, long durationNanos) {
+        if (current.get() == span) {
+            if (span.parent() == null) {
+                current.remove();
+            } else {
+                current.set(span.parent());
+            }
+        }
+        export(span, durationNanos);
+    }
+
+    void export(Span span, long durationNanos) {
+        var startEpochMicros = epochMicrosAtStart + (span.startNanos() - nanosAtStart) / 1000;
+        exporter.export(new SpanData(span.traceId(), span.spanId(), span.parentSpanId(), span.name(), startEpochMicros, durationNanos,
+                span.attributes(), span.error()));
+    }
+}
@@ -0,0 +1,119 @@
+package org.eclipse.edc.mvd.warmup;
+
+import com.google.gson.Gson;
+import okio.Buffer;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.types.domain.HttpDataAddress;
+import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.eclipse.edc.mvd.anonymize.AnonymizedPayloadCache;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.model.Building;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.pipeline.StringRequestBodySupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs synthetic payloads through the anonymization and request-building paths so that Gson reflection metadata,
+ * OkHttp URL and media type parsing and the decorator chain are initialized and JIT-compiled before the first
+ * transfer arrives. Payloads take the same byte stream path as source responses, including hashing and caching, but
+ * into private caches, so neither the shared anonymized payload cache nor the names remembered by the name strategy of
+ * live transfers are displaced by synthetic entries. No network calls are made.
+ */
+public class WarmUp {
+
+    private static final String BASE_URL = "http://localhost/warm-up";
+    private static final String CONTENT_TYPE = "application/json";
+    private static final long CACHE_SIZE = 1 << 20;
+
+    private final Gson gson = new Gson();
+    private final Monitor monitor;
+    private final BuildingAnonymizer anonymizer;
+    private final HttpRequestParamsProvider paramsProvider;
+    private final HttpRequestFactory requestFactory;
+
+    public WarmUp(Monitor monitor, BuildingAnonymizer anonymizer, HttpRequestParamsProvider paramsProvider, HttpRequestFactory requestFactory) {
+        this.monitor = monitor;
+        this.anonymizer = anonymizer.withSeparateCaches(new AnonymizedPayloadCache(CACHE_SIZE));
+        this.paramsProvider = paramsProvider;
+        this.requestFactory = requestFactory;
+    }
+
+    /**
+     * Runs the warm-up and reports its duration.
+     *
+     * @param iterations number of synthetic payloads and requests to process
+     */
+    public void run(int iterations) {
+        var start = System.nanoTime();
+        try {
+            for (var i = 0; i < iterations; i++) {
+                var payload = gson.toJson(syntheticBuilding(i));
+                anonymizer.anonymize(new ByteArrayInputStream(payload.getBytes(UTF_8)), UTF_8);
+                buildRequests(i, payload);
+            }
+            monitor.info(format("Warm-up of %s iterations completed in %s ms", iterations, (System.nanoTime() - start) / 1_000_000));
+        } catch (Exception e) {
+            monitor.warning("Warm-up failed, the first transfers may be slower", e);
+        }
+    }
+
+    private void buildRequests(int iteration, String payload) throws IOException {
+        var request = DataFlowRequest.Builder.newInstance()
+                .id(UUID.randomUUID().toString())
+                .processId("warm-up")
+                .sourceDataAddress(address(iteration, false))
+                .destinationDataAddress(address(iteration, iteration % 2 == 0))
+                .build();
+
+        var sourceParams = paramsProvider.provideSourceParams(request);
+        requestFactory.toRequest(sourceParams);
+
+        var sinkParams = paramsProvider.provideSinkParams(request);
+        var sinkRequest = requestFactory.toRequest(sinkParams, new StringRequestBodySupplier(payload));
+        var body = sinkRequest.body();
+        if (body != null) {
+            body.contentType();
+            body.writeTo(new Buffer());
+        }
+    }
+
+    private static HttpDataAddress address(int iteration, boolean nonChunked) {
+        return HttpDataAddress.Builder.newInstance()
+                .baseUrl(BASE_URL)
+                .path("/buildings/" + iteration)
+                .queryParams("page=" + iteration)
+                .method("POST")
+                .contentType(CONTENT_TYPE)
+                .nonChunkedTransfer(nonChunked)
+                .authKey("Authorization")
+                .authCode("warm-up")
+                .build();
+    }
+
+    private static Building syntheticBuilding(int iteration) {
+        var series = new float[12 + iteration % 12];
+        for (var i = 0; i < series.length; i++) {
+            series[i] = iteration * 0.5f + i * 13.7f;
+        }
+        return new Building(
+                "warm-up-" + iteration,
+                "First" + iteration,
+                "Last" + iteration,
+                "Street " + iteration + ", 12345 City",
+                40f + iteration % 100,
+                iteration,
+                series,
+                series.clone(),
+                iteration % 2 == 0,
+                1 + iteration % 8,
+                BASE_URL + "/certificates/" + iteration,
+                iteration % 2 == 0 ? "aggregationProvider" : "warmUpProvider");
+    }
+}
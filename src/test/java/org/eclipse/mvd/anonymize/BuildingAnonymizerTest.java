@@ -0,0 +1,118 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class BuildingAnonymizerTest {
+
+    private static final String BUILDING = """
+            {"id":"b-1","firstName":"Jürgen","lastName":"Öztürk","address":"Müllerstraße 1","livingSpace":120.0,
+            "meterNumber":7,"warmthTotal":[1.0,2.0],"warmWaterTotal":[3.0],"heatedBasement":true,"apartments":2,
+            "certificateEndpoint":"http://localhost/certificate","dataTrustee":"aggregationProvider"}""";
+
+    @Test
+    void anonymize_decodesDeclaredCharset() throws IOException {
+        var anonymizer = anonymizer(new AnonymizedPayloadCache(1 << 20));
+
+        var anonymized = new String(anonymizer.anonymize(new ByteArrayInputStream(BUILDING.getBytes(ISO_8859_1)), ISO_8859_1), UTF_8);
+
+        assertThat(anonymized)
+                .contains("\"firstName\":\"******\"")
+                .contains("\"lastName\":\"******\"")
+                .contains("\"address\":\"Müllerstraße 1\"");
+    }
+
+    @Test
+    void anonymize_cachesPerCharset() throws IOException {
+        var cache = new AnonymizedPayloadCache(1 << 20);
+        var anonymizer = anonymizer(cache);
+        var raw = BUILDING.getBytes(ISO_8859_1);
+
+        var first = anonymizer.anonymize(new ByteArrayInputStream(raw), ISO_8859_1);
+        var second = anonymizer.anonymize(new ByteArrayInputStream(raw), ISO_8859_1);
+        anonymizer.anonymize(new ByteArrayInputStream(raw), UTF_8);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(2);
+        assertThat(cache.stats().bytesSaved()).isEqualTo(raw.length);
+    }
+
+    @Test
+    void anonymize_countsEvictions() throws IOException {
+        // room for a single anonymized payload
+        var cache = new AnonymizedPayloadCache(1024);
+        var anonymizer = anonymizer(cache);
+
+        anonymizer.anonymize(new ByteArrayInputStream(BUILDING.getBytes(UTF_8)));
+        anonymizer.anonymize(new ByteArrayInputStream(BUILDING.replace("b-1", "b-2").getBytes(UTF_8)));
+
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().entries()).isEqualTo(1);
+    }
+
+    @Test
+    void anonymize_everyRecordOfArray() {
+        var anonymized = anonymizer(new AnonymizedPayloadCache(0)).anonymize("[" + BUILDING + "," + BUILDING.replace("b-1", "b-2") + "]");
+
+        assertThat(anonymized).startsWith("[").endsWith("]").doesNotContain("Jürgen", "Öztürk").contains("\"b-1\"", "\"b-2\"");
+    }
+
+    @Test
+    void anonymize_everyRecordOfNdjson() {
+        var ndjson = BUILDING.replace("\n", "") + "\n" + BUILDING.replace("\n", "").replace("b-1", "b-2") + "\n";
+
+        var anonymized = anonymizer(new AnonymizedPayloadCache(0)).anonymize(ndjson);
+
+        assertThat(anonymized.lines()).hasSize(2).allSatisfy(line -> assertThat(line)
+                .startsWith("{")
+                .contains("\"firstName\":\"******\"")
+                .doesNotContain("Jürgen", "Öztürk"));
+    }
+
+    @Test
+    void anonymize_recordWithoutDataTrustee() {
+        var anonymized = anonymizer(new AnonymizedPayloadCache(0)).anonymize(BUILDING.replace(",\"dataTrustee\":\"aggregationProvider\"", ""));
+
+        assertThat(anonymized).contains("Jürgen");
+    }
+
+    @Test
+    void anonymize_rejectsPayloadThatIsNotBuildingJson() {
+        var cache = new AnonymizedPayloadCache(1 << 20);
+        var anonymizer = anonymizer(cache);
+
+        assertThatThrownBy(() -> anonymizer.anonymize(new ByteArrayInputStream("Jürgen Öztürk".getBytes(UTF_8))))
+                .isInstanceOf(EdcException.class);
+        assertThatThrownBy(() -> anonymizer.anonymize(BUILDING.replace("\"b-1\"", "[")))
+                .isInstanceOf(EdcException.class);
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    @Test
+    void withSeparateCaches_leavesSharedCacheUntouched() throws IOException {
+        var shared = new AnonymizedPayloadCache(1 << 20);
+        var separate = new AnonymizedPayloadCache(1 << 20);
+        var anonymizer = anonymizer(shared);
+
+        var anonymized = anonymizer.withSeparateCaches(separate).anonymize(new ByteArrayInputStream(BUILDING.getBytes(UTF_8)));
+
+        assertThat(anonymized).isEqualTo(anonymizer.anonymize(new ByteArrayInputStream(BUILDING.getBytes(UTF_8))));
+        assertThat(separate.stats().entries()).isEqualTo(1);
+        assertThat(shared.stats().misses()).isEqualTo(1);
+    }
+
+    private static BuildingAnonymizer anonymizer(AnonymizedPayloadCache cache) {
+        return new BuildingAnonymizer(mock(Monitor.class), new MaskingStrategy(), MeterSeriesGeneralizer.create(MeterSeriesPolicy.NONE, 0), cache);
+    }
+}
@@ -0,0 +1,91 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HmacPseudonymizationStrategyTest {
+
+    private static final byte[] KEY = "key".getBytes(UTF_8);
+
+    @Test
+    void anonymize_truncatedHmac() {
+        var strategy = new HmacPseudonymizationStrategy("alias", KEY, 10);
+
+        // first 128 bits of HMAC-SHA256("key", "The quick brown fox jumps over the lazy dog"), Base64url encoded
+        assertThat(strategy.anonymize("The quick brown fox jumps over the lazy dog")).isEqualTo("97yD9DBThCSxMpjmqm-xQw");
+    }
+
+    @Test
+    void anonymize_deterministicAndFixedLength() {
+        var strategy = new HmacPseudonymizationStrategy("alias", KEY, 10);
+
+        var first = strategy.anonymize("Ada");
+        var second = new HmacPseudonymizationStrategy("alias", KEY, 0).anonymize("Ada");
+
+        assertThat(first).isEqualTo(second).hasSize(22);
+        assertThat(strategy.anonymize("Augusta Ada King, Countess of Lovelace")).hasSize(22).isNotEqualTo(first);
+    }
+
+    @Test
+    void anonymize_dependsOnKey() {
+        var first = new HmacPseudonymizationStrategy("alias", KEY, 10).anonymize("Ada");
+        var second = new HmacPseudonymizationStrategy("alias", "other".getBytes(UTF_8), 10).anonymize("Ada");
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void anonymize_sameAcrossThreads() throws Exception {
+        var strategy = new HmacPseudonymizationStrategy("alias", KEY, 0);
+        var expected = new HmacPseudonymizationStrategy("alias", KEY, 0).anonymize("Ada");
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var pseudonyms = new ArrayList<Future<String>>();
+            for (var i = 0; i < 100; i++) {
+                // without a cache every call runs the MAC of its thread
+                pseudonyms.add(executor.submit(() -> strategy.anonymize("Ada")));
+            }
+            for (var pseudonym : pseudonyms) {
+                assertThat(pseudonym.get(5, TimeUnit.SECONDS)).isEqualTo(expected);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void anonymize_null() {
+        assertThat(new HmacPseudonymizationStrategy("alias", KEY, 10).anonymize(null)).isNull();
+    }
+
+    @Test
+    void withSeparateCache_keepsPseudonymsAndPlan() {
+        var strategy = new HmacPseudonymizationStrategy("alias", KEY, 1);
+        var first = strategy.anonymize("Ada");
+
+        var separate = strategy.withSeparateCache();
+
+        assertThat(separate).isNotSameAs(strategy);
+        assertThat(separate.anonymize("Ada")).isEqualTo(first);
+        assertThat(separate.planVersion()).isEqualTo(strategy.planVersion());
+    }
+
+    @Test
+    void planVersion_containsKeyAlias() {
+        assertThat(new HmacPseudonymizationStrategy("alias", KEY, 10).planVersion()).isEqualTo("hmac:alias");
+    }
+
+    @Test
+    void constructor_rejectsEmptyKey() {
+        assertThatThrownBy(() -> new HmacPseudonymizationStrategy("alias", new byte[0], 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
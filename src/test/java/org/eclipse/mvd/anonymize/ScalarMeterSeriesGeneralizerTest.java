@@ -0,0 +1,77 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalarMeterSeriesGeneralizerTest {
+
+    private static final float[] SERIES = { 12.3f, 7.8f, 0f, -4.2f, 101.5f, 55.5f, 3.1f, 9.9f, 17.4f };
+
+    @Test
+    void generalize_round() {
+        var series = SERIES.clone();
+
+        new ScalarMeterSeriesGeneralizer(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.ROUND, 5f, 0f), 0).generalize(series);
+
+        assertThat(series).containsExactly(10f, 10f, 0f, -5f, 100f, 55f, 5f, 10f, 15f);
+    }
+
+    @Test
+    void generalize_bucket() {
+        var series = SERIES.clone();
+
+        new ScalarMeterSeriesGeneralizer(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.BUCKET, 5f, 0f), 0).generalize(series);
+
+        assertThat(series).containsExactly(10f, 5f, 0f, -5f, 100f, 55f, 0f, 5f, 15f);
+    }
+
+    @Test
+    void generalize_noiseIsDeterministic() {
+        var generalizer = new ScalarMeterSeriesGeneralizer(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.NONE, 1f, 2f), 42);
+        var first = SERIES.clone();
+        var second = SERIES.clone();
+
+        generalizer.generalize(first);
+        generalizer.generalize(second);
+
+        assertThat(first).containsExactly(second).isNotEqualTo(SERIES);
+    }
+
+    @Test
+    void generalize_noiseStaysWithinBound() {
+        var series = new float[10_000];
+
+        new ScalarMeterSeriesGeneralizer(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.NONE, 1f, 2f), 42).generalize(series);
+
+        var min = Float.MAX_VALUE;
+        var max = -Float.MAX_VALUE;
+        for (var value : series) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        assertThat(min).isBetween(-2f, -1.9f);
+        assertThat(max).isBetween(1.9f, 2f);
+    }
+
+    @Test
+    void generalize_noiseDependsOnSeed() {
+        var policy = new MeterSeriesPolicy(MeterSeriesPolicy.Mode.NONE, 1f, 2f);
+        var first = SERIES.clone();
+        var second = SERIES.clone();
+
+        new ScalarMeterSeriesGeneralizer(policy, 1).generalize(first);
+        new ScalarMeterSeriesGeneralizer(policy, 2).generalize(second);
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void generalize_identityPolicyLeavesSeriesUntouched() {
+        var series = SERIES.clone();
+
+        new ScalarMeterSeriesGeneralizer(MeterSeriesPolicy.NONE, 42).generalize(series);
+
+        assertThat(series).containsExactly(SERIES);
+    }
+}
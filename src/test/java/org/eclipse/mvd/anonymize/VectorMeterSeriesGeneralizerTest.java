@@ -0,0 +1,64 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorMeterSeriesGeneralizerTest {
+
+    @BeforeAll
+    static void requireVectorModule() {
+        assumeTrue(ModuleLayer.boot().findModule(MeterSeriesGeneralizer.VECTOR_MODULE).isPresent(),
+                "the Vector API module is not added to the test runtime");
+    }
+
+    @Test
+    void generalize_matchesScalar() {
+        var random = new SplittableRandom(7);
+        for (var length = 0; length < 70; length++) {
+            var series = new float[length];
+            for (var i = 0; i < length; i++) {
+                series[i] = (float) (random.nextDouble() * 400 - 200);
+            }
+            for (var mode : MeterSeriesPolicy.Mode.values()) {
+                assertSameAsScalar(new MeterSeriesPolicy(mode, 2.5f, 0f), series);
+                assertSameAsScalar(new MeterSeriesPolicy(mode, 2.5f, 1.5f), series);
+            }
+        }
+    }
+
+    @Test
+    void generalize_matchesScalarAtEdges() {
+        float[] series = {
+                -0f, -0.5f, 0.5f, -1f, -1.5f, -2.5f, 2.5f, -0x1p23f, 0x1p23f, -0x1.fffffep22f, 0x1.fffffep22f,
+                3e9f, -3e9f, Float.MAX_VALUE, -Float.MAX_VALUE, Float.MIN_VALUE, -Float.MIN_VALUE, Float.NaN,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, 4.999999f, -4.999999f, 1e-7f, -1e-7f
+        };
+
+        for (var mode : new MeterSeriesPolicy.Mode[]{ MeterSeriesPolicy.Mode.ROUND, MeterSeriesPolicy.Mode.BUCKET }) {
+            assertSameAsScalar(new MeterSeriesPolicy(mode, 1f, 0f), series);
+            assertSameAsScalar(new MeterSeriesPolicy(mode, 5f, 0f), series);
+            assertSameAsScalar(new MeterSeriesPolicy(mode, 0.1f, 0f), series);
+        }
+    }
+
+    @Test
+    void create_selectsVectorImplementation() {
+        assertThat(MeterSeriesGeneralizer.create(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.ROUND, 1f, 0f), 0))
+                .isInstanceOf(VectorMeterSeriesGeneralizer.class);
+    }
+
+    private static void assertSameAsScalar(MeterSeriesPolicy policy, float[] series) {
+        var scalar = series.clone();
+        var vector = series.clone();
+
+        new ScalarMeterSeriesGeneralizer(policy, 42).generalize(scalar);
+        new VectorMeterSeriesGeneralizer(policy, 42).generalize(vector);
+
+        assertThat(vector).as("%s of %s readings", policy, series.length).containsExactly(scalar);
+    }
+}
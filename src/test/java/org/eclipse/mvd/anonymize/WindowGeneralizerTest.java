@@ -0,0 +1,93 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowGeneralizerTest {
+
+    @Test
+    void generalize_everyClassHasAtLeastKRecords() {
+        for (var seed = 0; seed < 20; seed++) {
+            for (var k : new int[]{ 2, 5, 10 }) {
+                var policy = new KAnonymityPolicy(k, 500, 0.05);
+                var window = randomBuildings(new Random(seed), 200);
+
+                var generalized = new WindowGeneralizer(policy).generalize(window);
+
+                var description = "k=" + k + ", seed " + seed;
+                for (var size : classSizes(generalized).values()) {
+                    assertThat(size).as(description).isGreaterThanOrEqualTo(k);
+                }
+                assertThat(window.size() - generalized.size()).as(description)
+                        .isLessThanOrEqualTo((int) Math.floor(policy.maxSuppression() * window.size()));
+            }
+        }
+    }
+
+    @Test
+    void generalize_keepsRecordsThatAreAlreadyKAnonymous() {
+        var window = new ArrayList<JsonElement>();
+        for (var i = 0; i < 6; i++) {
+            window.add(building("Street " + (i % 2) + ", 12345 City", 80 + i % 2, 2));
+        }
+        var policy = new KAnonymityPolicy(2, 10, 0);
+
+        var generalized = new WindowGeneralizer(policy).generalize(window);
+
+        assertThat(generalized).isEqualTo(window);
+    }
+
+    @Test
+    void generalize_passesOnNonObjects() {
+        var window = new ArrayList<JsonElement>(List.of(new JsonPrimitive(1), building("Street 1, 12345 City", 80, 2),
+                building("Street 2, 12345 City", 80, 2)));
+
+        var generalized = new WindowGeneralizer(new KAnonymityPolicy(2, 10, 0)).generalize(window);
+
+        assertThat(generalized).hasSize(3).first().isEqualTo(new JsonPrimitive(1));
+        assertThat(generalized.get(1).getAsJsonObject().get("address").getAsString()).isEqualTo("12345");
+    }
+
+    static List<JsonElement> randomBuildings(Random random, int count) {
+        var buildings = new ArrayList<JsonElement>(count);
+        for (var i = 0; i < count; i++) {
+            buildings.add(building("Street " + random.nextInt(50) + ", " + (10000 + random.nextInt(300) * 7) + " City",
+                    30 + random.nextInt(200) + random.nextInt(10) / 10.0, 1 + random.nextInt(12)));
+        }
+        return buildings;
+    }
+
+    static JsonObject building(String address, double livingSpace, int apartments) {
+        var building = new JsonObject();
+        building.addProperty("address", address);
+        building.addProperty("livingSpace", livingSpace);
+        building.addProperty("apartments", apartments);
+        return building;
+    }
+
+    /**
+     * Sizes of the equivalence classes of the released quasi-identifiers.
+     */
+    static HashMap<String, Integer> classSizes(List<JsonElement> records) {
+        var sizes = new HashMap<String, Integer>();
+        for (var element : records) {
+            var record = element.getAsJsonObject();
+            var key = record.get("address") + "|" + released(record, "livingSpace") + "|" + released(record, "apartments");
+            sizes.merge(key, 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    private static JsonElement released(JsonObject record, String name) {
+        return record.has(name + "Range") ? record.get(name + "Range") : record.get(name);
+    }
+}
@@ -0,0 +1,97 @@
+package org.eclipse.edc.mvd.anonymize;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedKAnonymizerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void generalize_keepsJsonArrayFraming() throws IOException {
+        var records = identical(4);
+
+        var output = generalize(new KAnonymityPolicy(2, 2, 0), toArray(records).toString());
+
+        assertThat(JsonParser.parseString(output)).isEqualTo(toArray(records));
+    }
+
+    @Test
+    void generalize_keepsNewlineDelimitedFraming() throws IOException {
+        var records = identical(4);
+        var ndjson = new StringBuilder();
+        records.forEach(record -> ndjson.append(record).append('\n'));
+
+        var output = generalize(new KAnonymityPolicy(2, 2, 0), ndjson.toString());
+
+        assertThat(output).isEqualTo(ndjson.toString());
+    }
+
+    @Test
+    void generalize_emptyPayload() throws IOException {
+        assertThat(generalize(new KAnonymityPolicy(2, 2, 0), "")).isEqualTo("[]");
+        assertThat(generalize(new KAnonymityPolicy(2, 2, 0), "[]")).isEqualTo("[]");
+    }
+
+    @Test
+    void generalize_mergesTrailingWindowSmallerThanK() throws IOException {
+        // on its own, the trailing window of 2 records could not reach k = 3 and would be suppressed
+        var records = identical(12);
+
+        var output = JsonParser.parseString(generalize(new KAnonymityPolicy(3, 10, 0), toArray(records).toString())).getAsJsonArray();
+
+        assertThat(output).hasSize(12);
+    }
+
+    @Test
+    void generalize_suppressesAtMostMaxSuppressionPerWindow() throws IOException {
+        var policy = new KAnonymityPolicy(4, 100, 0.05);
+        var records = WindowGeneralizerTest.randomBuildings(new Random(7), 1050);
+
+        var output = JsonParser.parseString(generalize(policy, toArray(records).toString())).getAsJsonArray();
+
+        // nine windows of 100 records, 5 suppressions each, and a last one holding the 50 trailing records as well
+        assertThat(records.size() - output.size()).isLessThanOrEqualTo(9 * 5 + 7);
+    }
+
+    private String generalize(KAnonymityPolicy policy, String json) throws IOException {
+        try (var generalized = new WindowedKAnonymizer(policy, executor, 2).generalize(new ByteArrayInputStream(json.getBytes(UTF_8)))) {
+            return new String(generalized.readAllBytes(), UTF_8);
+        }
+    }
+
+    private static List<JsonElement> identical(int count) {
+        var records = new ArrayList<JsonElement>();
+        for (var i = 0; i < count; i++) {
+            var record = WindowGeneralizerTest.building("Street 1, 12345 City", 80, 2);
+            record.addProperty("id", "b-" + i);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static JsonArray toArray(List<JsonElement> records) {
+        var array = new JsonArray();
+        records.forEach(array::add);
+        return array;
+    }
+}
@@ -0,0 +1,46 @@
+package org.eclipse.edc.mvd.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileTransferCheckpointStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void find_returnsSavedCheckpoints() {
+        var store = new FileTransferCheckpointStore(directory);
+
+        store.save("request", "acknowledged", PartCheckpoint.acknowledged(4, "digest"));
+        store.save("request", "completed", PartCheckpoint.completed(8));
+
+        assertThat(store.find("request", "acknowledged")).isEqualTo(PartCheckpoint.acknowledged(4, "digest"));
+        assertThat(store.find("request", "completed")).isEqualTo(PartCheckpoint.completed(8));
+        assertThat(store.find("request", "unknown")).isNull();
+    }
+
+    @Test
+    void find_readsCheckpointsWithoutDigest() throws Exception {
+        Files.writeString(directory.resolve("request.properties"), "part=4\n");
+
+        var checkpoint = new FileTransferCheckpointStore(directory).find("request", "part");
+
+        assertThat(checkpoint).isEqualTo(new PartCheckpoint(4, false, null));
+    }
+
+    @Test
+    void delete_removesAllCheckpointsOfRequest() {
+        var store = new FileTransferCheckpointStore(directory);
+        store.save("request", "part", PartCheckpoint.completed(8));
+
+        store.delete("request");
+
+        assertThat(store.find("request", "part")).isNull();
+    }
+}
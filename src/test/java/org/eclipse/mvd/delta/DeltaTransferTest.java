@@ -0,0 +1,120 @@
+package org.eclipse.edc.mvd.delta;
+
+import org.eclipse.edc.mvd.anonymize.AnonymizedPayloadCache;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.anonymize.MaskingStrategy;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesGeneralizer;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesPolicy;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DeltaTransferTest {
+
+    private static final String KEY = "asset->destination";
+
+    private final InMemoryDeltaIndexStore store = new InMemoryDeltaIndexStore();
+
+    @Test
+    void filter_passesNewAndChangedRecords() throws IOException {
+        var first = new DeltaTransfer(store, KEY, DeltaMode.CHANGES);
+        assertThat(filter(first, "[{\"id\":\"a\",\"v\":1},{\"id\":\"b\",\"v\":1}]")).isEqualTo("[{\"id\":\"a\",\"v\":1},{\"id\":\"b\",\"v\":1}]");
+        first.commit();
+
+        var second = new DeltaTransfer(store, KEY, DeltaMode.CHANGES);
+
+        assertThat(filter(second, "{\"id\":\"a\",\"v\":1}\n{\"id\":\"b\",\"v\":2}\n{\"v\":3}")).isEqualTo("[{\"id\":\"b\",\"v\":2},{\"v\":3}]");
+    }
+
+    @Test
+    void filter_unchangedRecordWithMeterNoise() throws IOException {
+        var building = """
+                {"id":"b-1","firstName":"Ada","lastName":"Lovelace","address":"Street 1","livingSpace":80.0,"meterNumber":1,
+                "warmthTotal":[10.5,11.25,12.0],"warmWaterTotal":[1.5,2.5],"heatedBasement":false,"apartments":1,
+                "certificateEndpoint":"http://localhost/certificate","dataTrustee":"aggregationProvider"}""";
+        var first = new DeltaTransfer(store, KEY, DeltaMode.CHANGES);
+        filter(first, anonymizeWithNoise(building));
+        first.commit();
+
+        var second = new DeltaTransfer(store, KEY, DeltaMode.CHANGES);
+
+        assertThat(filter(second, anonymizeWithNoise(building))).isEqualTo("[]");
+    }
+
+    @Test
+    void tombstones_onlyForCompleteTransfer() throws IOException {
+        store.index.put("a", 1L);
+        store.index.put("gone", 2L);
+        var transfer = new DeltaTransfer(store, KEY, DeltaMode.TOMBSTONES);
+        filter(transfer, "[{\"id\":\"a\"}]");
+        transfer.markIncomplete();
+
+        assertThat(transfer.tombstones()).isNull();
+        transfer.commit();
+        assertThat(store.index).containsOnlyKeys("a", "gone");
+    }
+
+    @Test
+    void tombstones_pendingTombstonesSentByRetrySkippingAllParts() throws IOException {
+        store.index.put("a", 1L);
+        store.index.put("gone", 2L);
+        var failed = new DeltaTransfer(store, KEY, DeltaMode.TOMBSTONES);
+        filter(failed, "[{\"id\":\"a\"},{\"id\":\"new\"}]");
+        assertThat(new String(failed.tombstones(), UTF_8)).isEqualTo("[{\"id\":\"gone\",\"deleted\":true}]");
+        failed.savePendingTombstones();
+        // the tombstone request fails, so the transfer is not committed
+
+        var retry = new DeltaTransfer(store, KEY, DeltaMode.TOMBSTONES);
+        retry.markIncomplete();
+
+        assertThat(new String(retry.tombstones(), UTF_8)).isEqualTo("[{\"id\":\"gone\",\"deleted\":true}]");
+        retry.commit();
+        assertThat(store.index).containsOnlyKeys("a", "new");
+    }
+
+    @Test
+    void tombstones_pendingRecordThatReappearsIsDeliveredAgain() throws IOException {
+        store.index.put("gone", 2L);
+        var failed = new DeltaTransfer(store, KEY, DeltaMode.TOMBSTONES);
+        filter(failed, "[]");
+        failed.tombstones();
+        failed.savePendingTombstones();
+
+        var next = new DeltaTransfer(store, KEY, DeltaMode.TOMBSTONES);
+
+        assertThat(filter(next, "[{\"id\":\"gone\"}]")).isEqualTo("[{\"id\":\"gone\"}]");
+        assertThat(next.tombstones()).isNull();
+    }
+
+    private static String filter(DeltaTransfer transfer, String json) throws IOException {
+        return new String(transfer.filter(new ByteArrayInputStream(json.getBytes(UTF_8))).readAllBytes(), UTF_8);
+    }
+
+    private static String anonymizeWithNoise(String building) {
+        var generalizer = MeterSeriesGeneralizer.create(new MeterSeriesPolicy(MeterSeriesPolicy.Mode.ROUND, 0.5f, 2f), 42);
+        return new BuildingAnonymizer(mock(Monitor.class), new MaskingStrategy(), generalizer, new AnonymizedPayloadCache(0)).anonymize(building);
+    }
+
+    private static class InMemoryDeltaIndexStore implements DeltaIndexStore {
+        private final Map<String, Long> index = new HashMap<>();
+
+        @Override
+        public Map<String, Long> load(String indexKey) {
+            return new HashMap<>(index);
+        }
+
+        @Override
+        public void save(String indexKey, Map<String, Long> index) {
+            this.index.clear();
+            this.index.putAll(index);
+        }
+    }
+}
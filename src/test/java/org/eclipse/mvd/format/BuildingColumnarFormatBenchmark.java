@@ -0,0 +1,73 @@
+package org.eclipse.edc.mvd.format;
+
+import com.google.gson.Gson;
+import org.eclipse.edc.mvd.model.Building;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares size and encode/decode throughput of the columnar format with JSON arrays for the same buildings.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=org.eclipse.edc.mvd.format.BuildingColumnarFormatBenchmark}; the
+ * optional arguments are the number of buildings and of measured rounds. Each format is warmed up for as many rounds
+ * as it is measured, and the best round is reported.
+ */
+public final class BuildingColumnarFormatBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    private BuildingColumnarFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        var rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        var buildings = BuildingColumnarFormatTest.buildings(0, count);
+
+        var json = GSON.toJson(buildings).getBytes(UTF_8);
+        var columnar = encodeColumnar(buildings);
+        System.out.printf(Locale.ROOT, "%s buildings: JSON %s bytes, columnar %s bytes (%.1f%% of JSON)%n",
+                count, json.length, columnar.length, 100.0 * columnar.length / json.length);
+
+        report("JSON encode", count, rounds, () -> GSON.toJson(buildings).getBytes(UTF_8).length);
+        report("JSON decode", count, rounds, () -> GSON.fromJson(new String(json, UTF_8), Building[].class).length);
+        report("columnar encode", count, rounds, () -> encodeColumnar(buildings).length);
+        report("columnar decode", count, rounds, () -> new BuildingColumnarReader(new ByteArrayInputStream(columnar)).readAll().size());
+        report("JSON to columnar transcode", count, rounds, () -> BuildingColumnarFormat.transcode(new ByteArrayInputStream(json)).available());
+    }
+
+    private static byte[] encodeColumnar(List<Building> buildings) throws IOException {
+        var output = new ByteArrayOutputStream();
+        var writer = new BuildingColumnarWriter(output);
+        for (var from = 0; from < buildings.size(); from += BuildingColumnarFormat.BATCH_SIZE) {
+            writer.writeBatch(buildings.subList(from, Math.min(buildings.size(), from + BuildingColumnarFormat.BATCH_SIZE)));
+        }
+        return output.toByteArray();
+    }
+
+    private static void report(String name, int count, int rounds, Operation operation) throws IOException {
+        var sink = 0L;
+        for (var i = 0; i < rounds; i++) {
+            sink += operation.run();
+        }
+        var best = Long.MAX_VALUE;
+        for (var i = 0; i < rounds; i++) {
+            var start = System.nanoTime();
+            sink += operation.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(format(Locale.ROOT, "%-28s %8.2f ms  %10.0f buildings/s  (checksum %s)", name, best / 1e6, count / (best / 1e9), sink));
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long run() throws IOException;
+    }
+}
@@ -0,0 +1,124 @@
+package org.eclipse.edc.mvd.format;
+
+import com.google.gson.Gson;
+import org.eclipse.edc.mvd.model.Building;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BuildingColumnarFormatTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void writeBatch_readAll_roundTrip() throws IOException {
+        var first = buildings(0, 300);
+        var second = buildings(300, 5);
+        var output = new ByteArrayOutputStream();
+        var writer = new BuildingColumnarWriter(output);
+
+        writer.writeBatch(first);
+        writer.writeBatch(second);
+        var read = new BuildingColumnarReader(new ByteArrayInputStream(output.toByteArray())).readAll();
+
+        var expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertThat(GSON.toJson(read)).isEqualTo(GSON.toJson(expected));
+    }
+
+    @Test
+    void writeBatch_emptyBatch() throws IOException {
+        var output = new ByteArrayOutputStream();
+
+        new BuildingColumnarWriter(output).writeBatch(List.of());
+
+        var reader = new BuildingColumnarReader(new ByteArrayInputStream(output.toByteArray()));
+        assertThat(reader.readBatch()).isEmpty();
+        assertThat(reader.readBatch()).isNull();
+    }
+
+    @Test
+    void transcode_acceptsSingleArrayAndNewlineDelimitedJson() throws IOException {
+        var buildings = buildings(0, 3);
+        var ndjson = new StringBuilder();
+        for (var building : buildings) {
+            ndjson.append(GSON.toJson(building)).append('\n');
+        }
+
+        assertThat(GSON.toJson(transcodeAndRead(GSON.toJson(buildings.get(0))))).isEqualTo(GSON.toJson(buildings.subList(0, 1)));
+        assertThat(GSON.toJson(transcodeAndRead(GSON.toJson(buildings)))).isEqualTo(GSON.toJson(buildings));
+        assertThat(GSON.toJson(transcodeAndRead(ndjson.toString()))).isEqualTo(GSON.toJson(buildings));
+    }
+
+    @Test
+    void transcode_splitsIntoBatches() throws IOException {
+        var buildings = buildings(0, BuildingColumnarFormat.BATCH_SIZE + 1);
+
+        var reader = new BuildingColumnarReader(BuildingColumnarFormat.transcode(new ByteArrayInputStream(GSON.toJson(buildings).getBytes(UTF_8))));
+
+        assertThat(reader.readBatch()).hasSize(BuildingColumnarFormat.BATCH_SIZE);
+        assertThat(reader.readBatch()).hasSize(1);
+        assertThat(reader.readBatch()).isNull();
+    }
+
+    @Test
+    void transcode_rejectsOtherJson() {
+        assertThatThrownBy(() -> BuildingColumnarFormat.transcode(new ByteArrayInputStream("[1, 2]".getBytes(UTF_8))))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void readBatch_rejectsOtherPayloads() {
+        var reader = new BuildingColumnarReader(new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(UTF_8)));
+
+        assertThatThrownBy(reader::readBatch).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void isSelectedBy() {
+        assertThat(BuildingColumnarFormat.isSelectedBy("application/vnd.mvd.buildings+columnar")).isTrue();
+        assertThat(BuildingColumnarFormat.isSelectedBy("Application/VND.mvd.buildings+columnar; version=1")).isTrue();
+        assertThat(BuildingColumnarFormat.isSelectedBy("application/json")).isFalse();
+        assertThat(BuildingColumnarFormat.isSelectedBy(null)).isFalse();
+    }
+
+    private static List<Building> transcodeAndRead(String json) throws IOException {
+        return new BuildingColumnarReader(BuildingColumnarFormat.transcode(new ByteArrayInputStream(json.getBytes(UTF_8)))).readAll();
+    }
+
+    /**
+     * Buildings covering null strings and series, repeated dictionary values, empty series and values needing
+     * multi-byte varints.
+     */
+    static List<Building> buildings(int from, int count) {
+        var buildings = new ArrayList<Building>(count);
+        for (var i = from; i < from + count; i++) {
+            var series = new float[i % 5 == 0 ? 0 : 12 + i % 13];
+            for (var j = 0; j < series.length; j++) {
+                series[j] = i * 0.25f + j * 17.5f - 40f;
+            }
+            buildings.add(new Building(
+                    "building-" + i,
+                    i % 7 == 0 ? null : "First" + i % 50,
+                    "Last" + i % 200,
+                    "Street " + i + ", 12345 City",
+                    40f + i % 100 + 0.5f,
+                    1_000_000 + i,
+                    i % 11 == 0 ? null : series,
+                    series.clone(),
+                    i % 2 == 0,
+                    1 + i % 8,
+                    i % 3 == 0 ? null : "http://localhost/certificates/" + i,
+                    i % 2 == 0 ? "aggregationProvider" : "otherProvider"));
+        }
+        return buildings;
+    }
+}
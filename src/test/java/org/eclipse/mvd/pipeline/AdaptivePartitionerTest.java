@@ -0,0 +1,87 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePartitionerTest {
+
+    private static final String DESTINATION = "http://localhost/upload";
+    private static final long BUDGET = 1L << 30;
+    private static final long TEN_MILLIS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void partitionSize_staticWithoutObservations() {
+        var partitioner = new AdaptivePartitioner(AdaptivePartitioner.Mode.FLOOR, 5, 4, BUDGET);
+
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(5);
+
+        // part latencies alone do not tell how many parts a transfer has
+        partitioner.recordPart(DESTINATION, 1000, TEN_MILLIS);
+
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(5);
+    }
+
+    @Test
+    void partitionSize_spreadsPartsOverWorkers() {
+        var partitioner = observed(AdaptivePartitioner.Mode.FLOOR, 5, BUDGET);
+
+        // 100 parts over 4 workers
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(25);
+    }
+
+    @Test
+    void partitionSize_smoothsObservations() {
+        var partitioner = observed(AdaptivePartitioner.Mode.FLOOR, 5, BUDGET);
+
+        partitioner.recordTransfer(DESTINATION, 200);
+
+        // 100 + 0.2 * (200 - 100) parts over 4 workers
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(30);
+    }
+
+    @Test
+    void partitionSize_limitsConcurrencyToInFlightBudget() {
+        // two parts of 1000 bytes fit into the budget
+        var partitioner = observed(AdaptivePartitioner.Mode.FLOOR, 5, 2000);
+
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(50);
+    }
+
+    @Test
+    void partitionSize_groupsTinyPartsToAmortizeScheduling() {
+        var partitioner = new AdaptivePartitioner(AdaptivePartitioner.Mode.FLOOR, 1, 4, BUDGET);
+        partitioner.recordPart(DESTINATION, 10, TimeUnit.MILLISECONDS.toNanos(1));
+        partitioner.recordTransfer(DESTINATION, 10);
+
+        // a partition task should run for 50 ms
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(50);
+    }
+
+    @Test
+    void partitionSize_clampedByStaticSize() {
+        assertThat(observed(AdaptivePartitioner.Mode.FLOOR, 40, BUDGET).partitionSize(DESTINATION)).isEqualTo(40);
+        assertThat(observed(AdaptivePartitioner.Mode.CEILING, 5, BUDGET).partitionSize(DESTINATION)).isEqualTo(5);
+        assertThat(observed(AdaptivePartitioner.Mode.CEILING, 40, BUDGET).partitionSize(DESTINATION)).isEqualTo(25);
+        assertThat(observed(AdaptivePartitioner.Mode.OFF, 5, BUDGET).partitionSize(DESTINATION)).isEqualTo(5);
+    }
+
+    @Test
+    void partitionSize_forgetsLeastRecentlyUsedDestinations() {
+        var partitioner = observed(AdaptivePartitioner.Mode.FLOOR, 5, BUDGET);
+        for (var i = 0; i < AdaptivePartitioner.MAX_DESTINATIONS; i++) {
+            partitioner.recordTransfer("http://localhost/" + i, 100);
+        }
+
+        assertThat(partitioner.partitionSize(DESTINATION)).isEqualTo(5);
+    }
+
+    private static AdaptivePartitioner observed(AdaptivePartitioner.Mode mode, int staticSize, long budget) {
+        var partitioner = new AdaptivePartitioner(mode, staticSize, 4, budget);
+        partitioner.recordPart(DESTINATION, 1000, TEN_MILLIS);
+        partitioner.recordTransfer(DESTINATION, 100);
+        return partitioner;
+    }
+}
@@ -0,0 +1,130 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControllerTest {
+
+    @Test
+    void admit_packsBytesAndOperationsAndReleasesThem() {
+        var admission = new AdmissionController(1000, 10, 10, Duration.ZERO);
+
+        var known = admission.admit(100);
+        var unknown = admission.admit(-1);
+
+        assertThat(admission.reservedBytes()).isEqualTo(110);
+        assertThat(admission.admittedOperations()).isEqualTo(2);
+
+        known.close();
+        known.close();
+        unknown.close();
+
+        assertThat(admission.reservedBytes()).isZero();
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    @Test
+    void admit_keepsLargestByteCountOutOfOperations() {
+        var admission = new AdmissionController(Long.MAX_VALUE, 10, 0, Duration.ZERO);
+
+        var permit = admission.admit(Long.MAX_VALUE);
+
+        assertThat(admission.admittedOperations()).isEqualTo(1);
+        assertThat(admission.reservedBytes()).isEqualTo(permit.bytes()).isPositive();
+
+        permit.close();
+
+        assertThat(admission.reservedBytes()).isZero();
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    @Test
+    void admit_admitsOversizedRequestAlone() {
+        var admission = new AdmissionController(100, 0, 0, Duration.ZERO);
+
+        var oversized = admission.admit(500);
+
+        assertThat(oversized).isNotNull();
+        assertThat(admission.reservedBytes()).isEqualTo(100);
+        assertThat(admission.admit(1)).isNull();
+
+        oversized.close();
+
+        assertThat(admission.admit(1)).isNotNull();
+    }
+
+    @Test
+    void admit_rejectsAfterMaxWait() {
+        var admission = new AdmissionController(0, 1, 0, Duration.ofMillis(50));
+        var held = admission.admit(1);
+        var start = System.nanoTime();
+
+        var rejected = admission.admit(1);
+
+        assertThat(rejected).isNull();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+        assertThat(admission.admittedOperations()).isEqualTo(1);
+        held.close();
+    }
+
+    @Test
+    void admit_admitsWaitersInArrivalOrder() throws InterruptedException {
+        var admission = new AdmissionController(0, 1, 0, Duration.ofSeconds(10));
+        var held = admission.admit(1);
+        var admitted = new CopyOnWriteArrayList<String>();
+
+        var first = waiter(admission, "first", admitted);
+        awaitParked(first);
+        var second = waiter(admission, "second", admitted);
+        awaitParked(second);
+        held.close();
+        first.join();
+        second.join();
+
+        assertThat(admitted).isEqualTo(List.of("first", "second"));
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    @Test
+    void resize_adjustsReservationWithoutWaiting() {
+        var admission = new AdmissionController(100, 0, 10, Duration.ZERO);
+        var permit = admission.admit(-1);
+
+        permit.resize(150);
+
+        assertThat(admission.reservedBytes()).isEqualTo(100);
+        assertThat(admission.admit(1)).isNull();
+
+        permit.resize(40);
+
+        assertThat(admission.reservedBytes()).isEqualTo(40);
+
+        permit.close();
+        permit.resize(80);
+
+        assertThat(admission.reservedBytes()).isZero();
+    }
+
+    private static Thread waiter(AdmissionController admission, String name, List<String> admitted) {
+        var thread = new Thread(() -> {
+            var permit = admission.admit(1);
+            if (permit != null) {
+                admitted.add(name);
+                permit.close();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import dev.failsafe.RetryPolicy;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.mvd.anonymize.AnonymizedPayloadCache;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.anonymize.MaskingStrategy;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesGeneralizer;
+import org.eclipse.edc.mvd.anonymize.MeterSeriesPolicy;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares a multi-resource source whose fetches block resource threads in {@code execute} with one enqueueing them on
+ * the {@link AsyncHttpExecutor}, against a local {@link MockWebServer} answering every request after a fixed delay.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=org.eclipse.edc.mvd.pipeline.AsyncHttpBenchmark}; the optional
+ * arguments are the number of resources, the response delay in milliseconds, the resource threads, the resource
+ * parallelism and the measured rounds. Each mode is warmed up for one round, and the best round is reported with the
+ * most threads the JVM had alive during the measured rounds.
+ */
+public final class AsyncHttpBenchmark {
+
+    private static final String BUILDING = """
+            {"id":"b-1","firstName":"Jane","lastName":"Doe","address":"Main Street 1","livingSpace":120.0,
+            "meterNumber":7,"warmthTotal":[1.0,2.0],"warmWaterTotal":[3.0],"heatedBasement":true,"apartments":2,
+            "dataTrustee":"aggregationProvider"}""";
+
+    private AsyncHttpBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var resources = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        var delayMillis = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        var threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        var parallelism = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        var rounds = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        try (var server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public @NotNull MockResponse dispatch(@NotNull RecordedRequest request) {
+                    return new MockResponse().setBody(BUILDING).setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+                }
+            });
+            server.start();
+            var okHttpClient = new OkHttpClient.Builder().build();
+            var asyncExecutor = new AsyncHttpExecutor(okHttpClient, RetryPolicy.<Response>builder().withMaxRetries(0).build(),
+                    parallelism, parallelism);
+            var executorService = Executors.newFixedThreadPool(threads);
+            try {
+                System.out.printf(Locale.ROOT, "%s resources, %s ms response delay, %s resource threads, parallelism %s%n",
+                        resources, delayMillis, threads, parallelism);
+                report("execute", rounds, resources, () -> source(server, okHttpClient, null, executorService, resources, parallelism));
+                report("enqueue", rounds, resources, () -> source(server, okHttpClient, asyncExecutor, executorService, resources, parallelism));
+            } finally {
+                executorService.shutdownNow();
+                asyncExecutor.shutdown();
+            }
+        }
+    }
+
+    private static MultiResourceHttpDataSource source(MockWebServer server, OkHttpClient okHttpClient, AsyncHttpExecutor asyncExecutor,
+                                                      ExecutorService executorService, int count, int parallelism) throws IOException {
+        var httpClient = mock(EdcHttpClient.class);
+        when(httpClient.execute(any())).thenAnswer(invocation -> okHttpClient.newCall(invocation.<Request>getArgument(0)).execute());
+        // no payload cache, so every body is anonymized
+        var anonymizer = new BuildingAnonymizer(mock(Monitor.class), new MaskingStrategy(), MeterSeriesGeneralizer.create(MeterSeriesPolicy.NONE, 0),
+                new AnonymizedPayloadCache(0));
+        var resources = new ArrayList<HttpDataSource>();
+        for (var i = 0; i < count; i++) {
+            resources.add(HttpDataSource.Builder.newInstance()
+                    .name("building-" + i)
+                    .requestId("benchmark")
+                    .params(HttpRequestParams.Builder.newInstance().baseUrl(server.url("/buildings/" + i).toString()).method("GET").build())
+                    .httpClient(httpClient)
+                    .monitor(mock(Monitor.class))
+                    .requestFactory(new HttpRequestFactory())
+                    .anonymizer(anonymizer)
+                    .singleFlight(new SingleFlight<>())
+                    .rateLimiter(new HostRateLimiter(0, 1))
+                    .retryPolicy(new SourceRetryPolicy(0, Duration.ZERO, Duration.ZERO))
+                    .tracer(TransferTracer.DISABLED)
+                    .admission(new AdmissionController(0, 0, 0, Duration.ZERO))
+                    .asyncExecutor(asyncExecutor)
+                    .build());
+        }
+        return MultiResourceHttpDataSource.Builder.newInstance()
+                .name("buildings")
+                .resources(resources)
+                .executorService(executorService)
+                .parallelism(parallelism)
+                .order(MultiResourceHttpDataSource.Order.COMPLETION)
+                .format(MultiResourceHttpDataSource.Format.NDJSON)
+                .build();
+    }
+
+    private static void report(String name, int rounds, int resources, SourceSupplier sources) throws Exception {
+        read(sources.get());
+        var threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        var best = Long.MAX_VALUE;
+        var sink = 0L;
+        for (var i = 0; i < rounds; i++) {
+            var source = sources.get();
+            var start = System.nanoTime();
+            sink += read(source);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(format(Locale.ROOT, "%-8s %8.1f ms  %8.0f resources/s  peak threads %3s  (checksum %s)",
+                name, best / 1e6, resources / (best / 1e9), threads.getPeakThreadCount(), sink));
+    }
+
+    private static long read(MultiResourceHttpDataSource source) throws IOException {
+        var parts = source.openPartStream();
+        if (parts.failed()) {
+            throw new IOException(parts.getFailureDetail());
+        }
+        try (var content = parts.getContent().findFirst().orElseThrow().openStream()) {
+            return content.readAllBytes().length;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SourceSupplier {
+        MultiResourceHttpDataSource get() throws IOException;
+    }
+}
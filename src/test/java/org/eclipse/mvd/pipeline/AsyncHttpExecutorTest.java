@@ -0,0 +1,147 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import dev.failsafe.RetryPolicy;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncHttpExecutorTest {
+
+    private static final Request REQUEST = new Request.Builder().url("http://localhost/buildings").build();
+
+    private final CountDownLatch released = new CountDownLatch(1);
+    private AsyncHttpExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        released.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_completesWithResponse() throws Exception {
+        executor = executor(chain -> response(chain.request(), new CountDownLatch(1)), new EventListener() { }, 0);
+
+        try (var response = executor.execute(REQUEST).get(5, TimeUnit.SECONDS)) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.body().string()).isEqualTo("{}");
+        }
+    }
+
+    @Test
+    void execute_retriesFailedCalls() throws Exception {
+        var attempts = new AtomicInteger();
+        executor = executor(chain -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("connection reset");
+            }
+            return response(chain.request(), new CountDownLatch(1));
+        }, new EventListener() { }, 1);
+
+        try (var response = executor.execute(REQUEST).get(5, TimeUnit.SECONDS)) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void execute_failsWithLastFailure() {
+        executor = executor(chain -> {
+            throw new IOException("connection reset");
+        }, new EventListener() { }, 1);
+
+        assertThatThrownBy(() -> executor.execute(REQUEST).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("connection reset");
+    }
+
+    @Test
+    void cancel_cancelsCall() throws Exception {
+        var started = new CountDownLatch(1);
+        var canceled = new CountDownLatch(1);
+        executor = executor(chain -> {
+            started.countDown();
+            await(released);
+            return response(chain.request(), new CountDownLatch(1));
+        }, new EventListener() {
+            @Override
+            public void canceled(@NotNull Call call) {
+                canceled.countDown();
+            }
+        }, 0);
+        var future = executor.execute(REQUEST);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        future.cancel(true);
+
+        assertThat(canceled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cancel_closesLateResponse() throws Exception {
+        var started = new CountDownLatch(1);
+        var closed = new CountDownLatch(1);
+        executor = executor(chain -> {
+            started.countDown();
+            await(released);
+            return response(chain.request(), closed);
+        }, new EventListener() { }, 0);
+        var future = executor.execute(REQUEST);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        future.cancel(true);
+        released.countDown();
+
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static AsyncHttpExecutor executor(Interceptor interceptor, EventListener listener, int retries) {
+        var client = new OkHttpClient.Builder().addInterceptor(interceptor).eventListener(listener).build();
+        return new AsyncHttpExecutor(client, RetryPolicy.<Response>builder().withMaxRetries(retries).build(), 4, 4);
+    }
+
+    /**
+     * A response whose body counts down the latch once closed.
+     */
+    private static Response response(Request request, CountDownLatch closed) {
+        var source = new ForwardingSource(new Buffer().writeUtf8("{}")) {
+            @Override
+            public void close() throws IOException {
+                closed.countDown();
+                super.close();
+            }
+        };
+        return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+                .body(ResponseBody.create(Okio.buffer(source), null, 2)).build();
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.eclipse.edc.mvd.checkpoint.PartCheckpoint;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.InMemorySpanExporter;
+import org.eclipse.edc.mvd.tracing.SpanData;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FanOutHttpDataSinkTest {
+
+    private static final String REQUEST_ID = "request";
+    private static final String FIRST = "http://first.local/upload";
+    private static final String SECOND = "http://second.local/upload";
+
+    private final EdcHttpClient httpClient = mock(EdcHttpClient.class);
+    private final InMemoryCheckpointStore checkpointStore = new InMemoryCheckpointStore();
+    private final Map<String, List<String>> bodies = new ConcurrentHashMap<>();
+    private final Set<String> failingDestinations = ConcurrentHashMap.newKeySet();
+    private ExecutorService executorService;
+    private ExecutorService destinationExecutorService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executorService = Executors.newFixedThreadPool(3);
+        destinationExecutorService = Executors.newFixedThreadPool(2);
+        when(httpClient.execute(any())).thenAnswer(invocation -> {
+            Request request = invocation.getArgument(0);
+            var body = new Buffer();
+            request.body().writeTo(body);
+            var url = request.url().toString();
+            bodies.computeIfAbsent(url, key -> new CopyOnWriteArrayList<>()).add(body.readUtf8());
+            var code = failingDestinations.contains(url) ? 500 : 200;
+            return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code).message("status")
+                    .body(ResponseBody.create("", null)).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executorService.shutdown();
+        destinationExecutorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+        destinationExecutorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void transfer_deliversEveryPartToEveryDestination() throws Exception {
+        var result = sink(new AdmissionController(0, 0, 0, Duration.ZERO), TransferTracer.DISABLED)
+                .transfer(source("a", "b")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies.get(FIRST)).containsExactlyInAnyOrder("content-a", "content-b");
+        assertThat(bodies.get(SECOND)).containsExactlyInAnyOrder("content-a", "content-b");
+        // the checkpoints of a completed transfer are deleted
+        assertThat(checkpointStore.checkpoints).isEmpty();
+    }
+
+    @Test
+    void transfer_waitsForDestinationThreadsInsteadOfFailing() throws Exception {
+        // six parts on three partition threads compete for two destination threads, one part at a time gets both
+        var parts = IntStream.range(0, 6).mapToObj(String::valueOf).toArray(String[]::new);
+
+        var result = sink(new AdmissionController(0, 0, 0, Duration.ZERO), TransferTracer.DISABLED)
+                .transfer(source(parts)).get(10, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies.get(FIRST)).hasSize(6);
+        assertThat(bodies.get(SECOND)).hasSize(6);
+    }
+
+    @Test
+    void transfer_resendsOnlyToDestinationsThatDidNotAcknowledge() throws Exception {
+        failingDestinations.add(SECOND);
+
+        var failed = sink(new AdmissionController(0, 0, 0, Duration.ZERO), TransferTracer.DISABLED)
+                .transfer(source("a")).get(5, TimeUnit.SECONDS);
+
+        assertThat(failed.failed()).isTrue();
+        assertThat(checkpointStore.find(REQUEST_ID, "a->0")).isEqualTo(PartCheckpoint.completed(9));
+        assertThat(checkpointStore.find(REQUEST_ID, "a->1")).isNull();
+
+        failingDestinations.clear();
+        bodies.clear();
+        var retried = sink(new AdmissionController(0, 0, 0, Duration.ZERO), TransferTracer.DISABLED)
+                .transfer(source("a")).get(5, TimeUnit.SECONDS);
+
+        assertThat(retried.succeeded()).isTrue();
+        assertThat(bodies).containsOnlyKeys(SECOND);
+    }
+
+    @Test
+    void transfer_rejectsPartOverAdmissionBudget() throws Exception {
+        var admission = new AdmissionController(0, 1, 0, Duration.ZERO);
+        var held = admission.admit(0);
+
+        var result = sink(admission, TransferTracer.DISABLED).transfer(source("a")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.failed()).isTrue();
+        assertThat(bodies).isEmpty();
+        held.close();
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    @Test
+    void transfer_tracesPartWithDeliveryPerDestination() throws Exception {
+        var exporter = new InMemorySpanExporter(100);
+        failingDestinations.add(FIRST);
+
+        var result = sink(new AdmissionController(0, 0, 0, Duration.ZERO), new TransferTracer(1, exporter))
+                .transfer(source("a")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.failed()).isTrue();
+        var spans = exporter.spans(REQUEST_ID);
+        var part = spans.stream().filter(span -> span.name().equals("sink.fanout.part")).findFirst().orElseThrow();
+        assertThat(part.attributes()).containsEntry("part", "a").containsEntry("destinations", "2");
+        assertThat(part.error()).isNotNull();
+        var deliveries = spans.stream().filter(span -> span.name().equals("sink.fanout.delivery")).toList();
+        assertThat(deliveries).hasSize(2).allSatisfy(delivery -> assertThat(delivery.parentSpanId()).isEqualTo(part.spanId()));
+        assertThat(deliveries).filteredOn(delivery -> delivery.error() != null).map(SpanData::attributes)
+                .containsExactly(Map.of("destination", "0"));
+    }
+
+    @Test
+    void transfer_closesParts() throws Exception {
+        var closed = new CopyOnWriteArrayList<String>();
+        var parts = new ArrayList<DataSource.Part>();
+        for (var name : List.of("a", "b")) {
+            parts.add(new TestPart(name) {
+                @Override
+                public void close() {
+                    closed.add(name());
+                }
+            });
+        }
+        checkpointStore.save(REQUEST_ID, "a->0", PartCheckpoint.completed(9));
+        checkpointStore.save(REQUEST_ID, "a->1", PartCheckpoint.completed(9));
+
+        var result = sink(new AdmissionController(0, 0, 0, Duration.ZERO), TransferTracer.DISABLED)
+                .transfer(() -> StreamResult.success(parts.stream())).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies.get(FIRST)).containsExactly("content-b");
+        assertThat(closed).containsExactlyInAnyOrder("a", "b");
+    }
+
+    private FanOutHttpDataSink sink(AdmissionController admission, TransferTracer tracer) {
+        return FanOutHttpDataSink.Builder.newInstance()
+                .destinations(List.of(params(FIRST), params(SECOND)))
+                .requestId(REQUEST_ID)
+                .partitionSize(1)
+                .executorService(executorService)
+                .destinationExecutorService(destinationExecutorService)
+                .destinationThreads(new Semaphore(2, true))
+                .monitor(mock(Monitor.class))
+                .httpClient(httpClient)
+                .requestFactory(new HttpRequestFactory())
+                .checkpointStore(checkpointStore)
+                .tracer(tracer)
+                .admission(admission)
+                .maxLag(1024)
+                .build();
+    }
+
+    private static HttpRequestParams params(String url) {
+        return HttpRequestParams.Builder.newInstance().baseUrl(url).method("POST").contentType("application/json").build();
+    }
+
+    private static DataSource source(String... names) {
+        return () -> StreamResult.success(Stream.of(names).map(TestPart::new));
+    }
+
+    private static class TestPart implements DataSource.Part {
+        private final String name;
+
+        TestPart(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(("content-" + name).getBytes(UTF_8));
+        }
+    }
+
+    private static class InMemoryCheckpointStore implements TransferCheckpointStore {
+        private final Map<String, PartCheckpoint> checkpoints = new HashMap<>();
+
+        @Override
+        public synchronized PartCheckpoint find(String requestId, String partName) {
+            return checkpoints.get(requestId + "/" + partName);
+        }
+
+        @Override
+        public synchronized void save(String requestId, String partName, PartCheckpoint checkpoint) {
+            checkpoints.put(requestId + "/" + partName, checkpoint);
+        }
+
+        @Override
+        public synchronized void delete(String requestId) {
+            checkpoints.keySet().removeIf(key -> key.startsWith(requestId + "/"));
+        }
+    }
+}
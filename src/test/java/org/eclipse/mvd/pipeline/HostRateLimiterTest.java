@@ -0,0 +1,104 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostRateLimiterTest {
+
+    private static final long INTERVAL = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void reserve_permitsBurstThenPacesAtRate() {
+        var limiter = new HostRateLimiter(10, 3, now::get);
+
+        assertThat(limiter.reserve("host")).isNotPositive();
+        assertThat(limiter.reserve("host")).isNotPositive();
+        assertThat(limiter.reserve("host")).isNotPositive();
+        assertThat(limiter.reserve("host")).isEqualTo(INTERVAL);
+        assertThat(limiter.reserve("host")).isEqualTo(2 * INTERVAL);
+    }
+
+    @Test
+    void reserve_refillsBurstOverTime() {
+        var limiter = new HostRateLimiter(10, 3, now::get);
+        for (var i = 0; i < 3; i++) {
+            limiter.reserve("host");
+        }
+
+        now.addAndGet(INTERVAL);
+
+        assertThat(limiter.reserve("host")).isZero();
+        assertThat(limiter.reserve("host")).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void reserve_bucketsPerHost() {
+        var limiter = new HostRateLimiter(10, 1, now::get);
+
+        assertThat(limiter.reserve("first")).isNotPositive();
+        assertThat(limiter.reserve("second")).isNotPositive();
+        assertThat(limiter.reserve("first")).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void reserve_unlimited() {
+        var limiter = new HostRateLimiter(0, 1, now::get);
+
+        for (var i = 0; i < 1000; i++) {
+            assertThat(limiter.reserve("host")).isNotPositive();
+        }
+    }
+
+    @Test
+    void reserve_dropsIdleBuckets() {
+        var limiter = new HostRateLimiter(0, 1, now::get);
+
+        limiter.backOff("busy", Duration.ofHours(1));
+        for (var i = 0; i < 2 * HostRateLimiter.SWEEP_THRESHOLD; i++) {
+            limiter.reserve("host-" + i);
+        }
+
+        assertThat(limiter.trackedHosts()).isLessThanOrEqualTo(HostRateLimiter.SWEEP_THRESHOLD + 1);
+        assertThat(limiter.reserve("busy")).isEqualTo(Duration.ofHours(1).toNanos());
+    }
+
+    @Test
+    void backOff_delaysAllRequestsToHost() {
+        var limiter = new HostRateLimiter(10, 3, now::get);
+        var delay = Duration.ofSeconds(1).toNanos();
+
+        limiter.backOff("host", Duration.ofSeconds(1));
+
+        // the burst is not available again right after the back-off
+        assertThat(limiter.reserve("host")).isEqualTo(delay);
+        assertThat(limiter.reserve("host")).isEqualTo(delay + INTERVAL);
+        assertThat(limiter.reserve("other")).isNotPositive();
+    }
+
+    @Test
+    void backOff_neverShortensEarlierBackOff() {
+        var limiter = new HostRateLimiter(10, 1, now::get);
+        var delay = Duration.ofSeconds(1).toNanos();
+
+        limiter.backOff("host", Duration.ofSeconds(1));
+        limiter.backOff("host", Duration.ofMillis(10));
+
+        assertThat(limiter.reserve("host")).isEqualTo(delay);
+    }
+
+    @Test
+    void backOff_appliesWhenUnlimited() {
+        var limiter = new HostRateLimiter(0, 1, now::get);
+        var delay = Duration.ofSeconds(1).toNanos();
+
+        limiter.backOff("host", Duration.ofSeconds(1));
+
+        assertThat(limiter.reserve("host")).isEqualTo(delay);
+    }
+}
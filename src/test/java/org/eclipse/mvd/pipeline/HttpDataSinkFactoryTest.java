@@ -0,0 +1,68 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.delta.DeltaIndexStore;
+import org.eclipse.edc.mvd.format.BuildingColumnarFormat;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.types.domain.HttpDataAddress;
+import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class HttpDataSinkFactoryTest {
+
+    private final HttpRequestParamsProvider paramsProvider = mock(HttpRequestParamsProvider.class);
+    private final DeltaIndexStore deltaIndexStore = mock(DeltaIndexStore.class);
+    private final HttpDataSinkFactory factory = new HttpDataSinkFactory(mock(EdcHttpClient.class), mock(ExecutorService.class),
+            new AdaptivePartitioner(AdaptivePartitioner.Mode.OFF, 1, 1, 1), mock(Monitor.class), paramsProvider, new HttpRequestFactory(),
+            mock(TransferCheckpointStore.class), deltaIndexStore, TransferTracer.DISABLED, new AdmissionController(0, 0, 0, Duration.ZERO), null);
+
+    @Test
+    void validateRequest_doesNotLoadDeltaIndex() {
+        var result = factory.validateRequest(request("application/json", Map.of(HttpDataSinkFactory.DELTA_MODE, "TOMBSTONES")));
+
+        assertThat(result.succeeded()).isTrue();
+        verifyNoInteractions(deltaIndexStore);
+    }
+
+    @Test
+    void validateRequest_rejectsTombstonesInColumnarFormat() {
+        var result = factory.validateRequest(request(BuildingColumnarFormat.CONTENT_TYPE, Map.of(HttpDataSinkFactory.DELTA_MODE, "TOMBSTONES")));
+
+        assertThat(result.failed()).isTrue();
+    }
+
+    @Test
+    void validateRequest_rejectsInvalidProperties() {
+        assertThat(factory.validateRequest(request("application/json", Map.of(HttpDataSinkFactory.DELTA_MODE, "SOMETIMES"))).failed()).isTrue();
+        assertThat(factory.validateRequest(request("application/json", Map.of(HttpDataSinkFactory.RESUMABLE_SEGMENT_SIZE, "large"))).failed()).isTrue();
+    }
+
+    private DataFlowRequest request(String contentType, Map<String, String> properties) {
+        var destination = HttpDataAddress.Builder.newInstance().type("HttpDataAnonymize").baseUrl("http://localhost/sink");
+        properties.forEach(destination::property);
+        var request = DataFlowRequest.Builder.newInstance()
+                .id("request")
+                .processId("process")
+                .sourceDataAddress(HttpDataAddress.Builder.newInstance().baseUrl("http://localhost/source").build())
+                .destinationDataAddress(destination.build())
+                .build();
+        when(paramsProvider.provideSinkParams(any())).thenReturn(HttpRequestParams.Builder.newInstance()
+                .baseUrl("http://localhost/sink").method("POST").contentType(contentType).build());
+        return request;
+    }
+}
@@ -0,0 +1,411 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import dev.failsafe.RetryPolicy;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParams;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.eclipse.edc.mvd.checkpoint.PartCheckpoint;
+import org.eclipse.edc.mvd.checkpoint.TransferCheckpointStore;
+import org.eclipse.edc.mvd.format.BuildingColumnarFormat;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HttpDataSinkTest {
+
+    private static final String REQUEST_ID = "request";
+    private static final String PART = "part";
+
+    private final EdcHttpClient httpClient = mock(EdcHttpClient.class);
+    private final InMemoryCheckpointStore checkpointStore = new InMemoryCheckpointStore();
+    private final List<String> ranges = new ArrayList<>();
+    private final List<String> bodies = new ArrayList<>();
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executorService = Executors.newSingleThreadExecutor();
+        when(httpClient.execute(any())).thenAnswer(invocation -> {
+            Request request = invocation.getArgument(0);
+            var body = new Buffer();
+            request.body().writeTo(body);
+            ranges.add(request.header("Content-Range"));
+            bodies.add(body.readUtf8());
+            return new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+                    .body(ResponseBody.create("", null)).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void transfer_resumesAfterAcknowledgedPrefix() throws Exception {
+        checkpointStore.save(REQUEST_ID, PART, PartCheckpoint.acknowledged(4, sha256("AAAA")));
+
+        var result = sink(4).transfer(source("AAAABBBB")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(ranges).containsExactly("bytes 4-7/8");
+        assertThat(bodies).containsExactly("BBBB");
+    }
+
+    @Test
+    void transfer_restartsWhenAcknowledgedPrefixChanged() throws Exception {
+        checkpointStore.save(REQUEST_ID, PART, PartCheckpoint.acknowledged(4, sha256("AAAA")));
+
+        var result = sink(4).transfer(source("CCCCBBBB")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(ranges).containsExactly("bytes 0-3/*", "bytes 4-7/8");
+        assertThat(bodies).containsExactly("CCCC", "BBBB");
+    }
+
+    @Test
+    void transfer_resumesAfterPrefixLargerThanAnArray() throws Exception {
+        var acknowledged = Integer.MAX_VALUE + 5L;
+        var digest = MessageDigest.getInstance("SHA-256");
+        try (var prefix = new ZeroInputStream(acknowledged)) {
+            var buffer = new byte[1 << 16];
+            for (int read; (read = prefix.read(buffer, 0, buffer.length)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        checkpointStore.save(REQUEST_ID, PART, PartCheckpoint.acknowledged(acknowledged, HexFormat.of().formatHex(digest.digest())));
+        var part = new DataSource.Part() {
+            @Override
+            public String name() {
+                return PART;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new SequenceInputStream(new ZeroInputStream(acknowledged), new ByteArrayInputStream("BBBB".getBytes(UTF_8)));
+            }
+        };
+
+        var result = sink(4).transfer(() -> StreamResult.success(Stream.of(part))).get(2, TimeUnit.MINUTES);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(ranges).containsExactly(format("bytes %s-%s/%s", acknowledged, acknowledged + 3, acknowledged + 4));
+        assertThat(bodies).containsExactly("BBBB");
+    }
+
+    @Test
+    void transfer_restartsWhenCheckpointHasNoDigest() throws Exception {
+        checkpointStore.save(REQUEST_ID, PART, new PartCheckpoint(4, false, null));
+
+        var result = sink(4).transfer(source("AAAABBBB")).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(ranges).containsExactly("bytes 0-3/*", "bytes 4-7/8");
+    }
+
+    @Test
+    void transfer_recordsDigestOfAcknowledgedPrefix() throws Exception {
+        var sink = sink(4);
+        checkpointStore.failOnCompletion = true;
+
+        sink.transfer(source("AAAABBBBCC")).get(5, TimeUnit.SECONDS);
+
+        assertThat(checkpointStore.find(REQUEST_ID, PART)).isEqualTo(PartCheckpoint.acknowledged(8, sha256("AAAABBBB")));
+    }
+
+    @Test
+    void transfer_failsWhenNonChunkedPartCannotBeTranscoded() throws Exception {
+        var params = HttpRequestParams.Builder.newInstance().baseUrl("http://localhost/upload").method("POST")
+                .contentType(BuildingColumnarFormat.CONTENT_TYPE).nonChunkedTransfer(true).build();
+
+        var result = sink(0, params).transfer(source("not building JSON")).get(5, TimeUnit.SECONDS);
+
+        // reported as a failed write, not as an exception escaping the partition
+        assertThat(result.getFailureDetail()).isEqualTo("Error writing data");
+        assertThat(bodies).isEmpty();
+        assertThat(checkpointStore.find(REQUEST_ID, PART)).isNull();
+    }
+
+    @Test
+    void transfer_closesSkippedPart() throws Exception {
+        checkpointStore.save(REQUEST_ID, PART, PartCheckpoint.completed(8));
+        var part = mock(DataSource.Part.class);
+        when(part.name()).thenReturn(PART);
+
+        var result = sink(0).transfer(() -> StreamResult.success(Stream.of(part))).get(5, TimeUnit.SECONDS);
+
+        // the part's source reservation is returned although it was never read
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies).isEmpty();
+        verify(part).close();
+    }
+
+    @Test
+    void transfer_returnsReservationsOfSkippedMultiResourcePart() throws Exception {
+        checkpointStore.save(REQUEST_ID, PART, PartCheckpoint.completed(8));
+        var admission = new AdmissionController(1000, 0, 0, Duration.ZERO);
+        var resource = mock(HttpDataSource.class);
+        when(resource.openAsync(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(StreamResult.success(new AdmittedBody(new byte[]{'1'}, admission.admit(100)))));
+        var source = MultiResourceHttpDataSource.Builder.newInstance()
+                .name(PART)
+                .resources(List.of(resource, resource))
+                .executorService(executorService)
+                .parallelism(2)
+                .order(MultiResourceHttpDataSource.Order.INPUT)
+                .format(MultiResourceHttpDataSource.Format.NDJSON)
+                .build();
+
+        var result = sink(0, admission).transfer(source).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies).isEmpty();
+        assertThat(admission.reservedBytes()).isZero();
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    @Test
+    void transfer_reservesOnlyAnOperationForAdmittedPart() throws Exception {
+        // the source's reservation alone fills the budget
+        var admission = new AdmissionController(100, 0, 0, Duration.ZERO);
+        var reserved = admission.admit(100);
+        var part = new AdmittedPart() {
+            @Override
+            public String name() {
+                return PART;
+            }
+
+            @Override
+            public long size() {
+                return 4;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream("AAAA".getBytes(UTF_8));
+            }
+        };
+
+        var result = sink(0, admission).transfer(() -> StreamResult.success(Stream.of(part))).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(bodies).containsExactly("AAAA");
+        reserved.close();
+    }
+
+    @Test
+    void transfer_boundsAsyncPartsInFlightPerHost() throws Exception {
+        var transferThread = new AtomicReference<Thread>();
+        executorService.shutdown();
+        executorService = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable);
+            transferThread.set(thread);
+            return thread;
+        });
+        var received = new CountDownLatch(1);
+        var released = new CountDownLatch(1);
+        var client = new OkHttpClient.Builder().addInterceptor(chain -> {
+            received.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Response.Builder().request(chain.request()).protocol(Protocol.HTTP_1_1).code(200).message("OK")
+                    .body(ResponseBody.create("", null)).build();
+        }).build();
+        var asyncExecutor = new AsyncHttpExecutor(client, RetryPolicy.<Response>builder().withMaxRetries(0).build(), 1, 1);
+        var opened = new AtomicInteger();
+        var parts = new ArrayList<DataSource.Part>();
+        for (var i = 0; i < 3; i++) {
+            var name = PART + i;
+            parts.add(new DataSource.Part() {
+                @Override
+                public String name() {
+                    return name;
+                }
+
+                @Override
+                public InputStream openStream() {
+                    opened.incrementAndGet();
+                    return new ByteArrayInputStream("AAAA".getBytes(UTF_8));
+                }
+            });
+        }
+        var sink = HttpDataSink.Builder.newInstance()
+                .params(HttpRequestParams.Builder.newInstance().baseUrl("http://localhost/upload").method("POST").contentType("application/json").build())
+                .requestId(REQUEST_ID)
+                .partitionSize(1)
+                .executorService(executorService)
+                .monitor(mock(Monitor.class))
+                .httpClient(httpClient)
+                .requestFactory(new HttpRequestFactory())
+                .checkpointStore(checkpointStore)
+                .partitioner(new AdaptivePartitioner(AdaptivePartitioner.Mode.OFF, 1, 1, 1))
+                .tracer(TransferTracer.DISABLED)
+                .admission(new AdmissionController(0, 0, 0, Duration.ZERO))
+                .asyncExecutor(asyncExecutor)
+                .build();
+
+        try {
+            var transfer = sink.transfer(() -> StreamResult.success(parts.stream()));
+            assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+            while (transferThread.get().getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+
+            // the next part is not read while the first one takes the only request slot for the host
+            assertThat(opened).hasValue(1);
+
+            released.countDown();
+
+            assertThat(transfer.get(5, TimeUnit.SECONDS).succeeded()).isTrue();
+            assertThat(opened).hasValue(3);
+        } finally {
+            released.countDown();
+            asyncExecutor.shutdown();
+        }
+    }
+
+    private HttpDataSink sink(int segmentSize) {
+        return sink(segmentSize, HttpRequestParams.Builder.newInstance().baseUrl("http://localhost/upload").method("POST").contentType("application/json").build());
+    }
+
+    private HttpDataSink sink(int segmentSize, AdmissionController admission) {
+        return sink(segmentSize, HttpRequestParams.Builder.newInstance().baseUrl("http://localhost/upload").method("POST").contentType("application/json").build(), admission);
+    }
+
+    private HttpDataSink sink(int segmentSize, HttpRequestParams params) {
+        return sink(segmentSize, params, new AdmissionController(0, 0, 0, Duration.ZERO));
+    }
+
+    private HttpDataSink sink(int segmentSize, HttpRequestParams params, AdmissionController admission) {
+        return HttpDataSink.Builder.newInstance()
+                .params(params)
+                .requestId(REQUEST_ID)
+                .partitionSize(1)
+                .executorService(executorService)
+                .monitor(mock(Monitor.class))
+                .httpClient(httpClient)
+                .requestFactory(new HttpRequestFactory())
+                .checkpointStore(checkpointStore)
+                .partitioner(new AdaptivePartitioner(AdaptivePartitioner.Mode.OFF, 1, 1, 1))
+                .tracer(TransferTracer.DISABLED)
+                .admission(admission)
+                .segmentSize(segmentSize)
+                .build();
+    }
+
+    private static DataSource source(String content) {
+        var part = new DataSource.Part() {
+            @Override
+            public String name() {
+                return PART;
+            }
+
+            @Override
+            public InputStream openStream() {
+                return new ByteArrayInputStream(content.getBytes(UTF_8));
+            }
+        };
+        return () -> StreamResult.success(Stream.of(part));
+    }
+
+    private static String sha256(String content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(UTF_8)));
+    }
+
+    /**
+     * Zeros of a length that need not fit into an array.
+     */
+    private static class ZeroInputStream extends InputStream {
+        private long remaining;
+
+        ZeroInputStream(long length) {
+            remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            var count = (int) Math.min(length, remaining);
+            Arrays.fill(buffer, offset, offset + count, (byte) 0);
+            remaining -= count;
+            return count;
+        }
+    }
+
+    private static class InMemoryCheckpointStore implements TransferCheckpointStore {
+        private final Map<String, PartCheckpoint> checkpoints = new HashMap<>();
+        private boolean failOnCompletion;
+
+        @Override
+        public synchronized PartCheckpoint find(String requestId, String partName) {
+            return checkpoints.get(requestId + "/" + partName);
+        }
+
+        @Override
+        public synchronized void save(String requestId, String partName, PartCheckpoint checkpoint) {
+            if (failOnCompletion && checkpoint.completed()) {
+                throw new IllegalStateException("interrupted before completion");
+            }
+            checkpoints.put(requestId + "/" + partName, checkpoint);
+        }
+
+        @Override
+        public synchronized void delete(String requestId) {
+            checkpoints.keySet().removeIf(key -> key.startsWith(requestId + "/"));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.http.spi.HttpRequestParamsProvider;
+import org.eclipse.edc.mvd.anonymize.BuildingAnonymizer;
+import org.eclipse.edc.mvd.anonymize.KAnonymityPolicy;
+import org.eclipse.edc.mvd.anonymize.WindowedKAnonymizer;
+import org.eclipse.edc.mvd.params.HttpRequestFactory;
+import org.eclipse.edc.mvd.tracing.TransferTracer;
+import org.eclipse.edc.spi.http.EdcHttpClient;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.types.domain.HttpDataAddress;
+import org.eclipse.edc.spi.types.domain.transfer.DataFlowRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class HttpDataSourceFactoryTest {
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final HttpDataSourceFactory factory = factory(0);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void validateRequest_acceptsResourceIds() {
+        for (var id : List.of("42", "b-1", "A.b_c~d", "..x")) {
+            assertThat(factory.validateRequest(request(id)).succeeded()).as(id).isTrue();
+        }
+    }
+
+    @Test
+    void validateRequest_rejectsResourceIds() {
+        for (var id : List.of("a/b", "..", ".", "%2F", "a%2e", "a?b", "a#b", "a\\b", "ä")) {
+            assertThat(factory.validateRequest(request(id)).failed()).as(id).isTrue();
+        }
+    }
+
+    @Test
+    void createSource_assetCannotLowerConfiguredK() {
+        var factory = factory(5);
+
+        assertThat(factory.createSource(request(null, "0"))).isInstanceOf(KAnonymousDataSource.class);
+        assertThat(factory.createSource(request(null, null))).isInstanceOf(KAnonymousDataSource.class);
+    }
+
+    @Test
+    void createSource_assetRaisesK() {
+        var factory = factory(0);
+
+        assertThat(factory.createSource(request(null, "3"))).isInstanceOf(KAnonymousDataSource.class);
+        assertThat(factory.createSource(request(null, null))).isInstanceOf(HttpDataSource.class);
+    }
+
+    private HttpDataSourceFactory factory(int k) {
+        return new HttpDataSourceFactory(mock(EdcHttpClient.class), mock(HttpRequestParamsProvider.class),
+                mock(Monitor.class), new HttpRequestFactory(), mock(BuildingAnonymizer.class), new HostRateLimiter(0, 1),
+                new SourceRetryPolicy(0, Duration.ZERO, Duration.ZERO), executorService, TransferTracer.DISABLED,
+                new WindowedKAnonymizer(new KAnonymityPolicy(k, Math.max(1, k), 0), executorService, 1), new AdmissionController(0, 0, 0, Duration.ZERO), null);
+    }
+
+    private static DataFlowRequest request(String resourceId) {
+        return request(resourceId, null);
+    }
+
+    private static DataFlowRequest request(String resourceId, String anonymityK) {
+        var source = HttpDataAddress.Builder.newInstance()
+                .type("HttpDataAnonymize")
+                .baseUrl("http://localhost");
+        if (resourceId != null) {
+            source.property(HttpDataSourceFactory.RESOURCE_PATH_TEMPLATE, "/buildings/{id}")
+                    .property(HttpDataSourceFactory.RESOURCE_IDS, "1," + resourceId);
+        }
+        if (anonymityK != null) {
+            source.property(HttpDataSourceFactory.ANONYMITY_K, anonymityK);
+        }
+        return DataFlowRequest.Builder.newInstance()
+                .id("request")
+                .processId("process")
+                .sourceDataAddress(source.build())
+                .destinationDataAddress(HttpDataAddress.Builder.newInstance().baseUrl("http://localhost/sink").build())
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.eclipse.edc.connector.dataplane.spi.pipeline.DataSource;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamFailure;
+import org.eclipse.edc.connector.dataplane.spi.pipeline.StreamResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultiResourceHttpDataSourceTest {
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void openPartStream_mergesBodiesInInputOrder() throws IOException {
+        var source = source(2, MultiResourceHttpDataSource.Format.JSON_ARRAY,
+                resource(CompletableFuture.completedFuture(StreamResult.success(bytes("{\"id\":1}")))),
+                resource(CompletableFuture.completedFuture(StreamResult.success(bytes("{\"id\":2}")))));
+
+        assertThat(read(source)).isEqualTo("[{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    void openPartStream_failsBeforeOutputWhenFirstResourceFails() {
+        var second = resource(new CompletableFuture<>());
+        var source = source(2, MultiResourceHttpDataSource.Format.JSON_ARRAY,
+                resource(CompletableFuture.completedFuture(StreamResult.notFound())), second);
+
+        var result = source.openPartStream();
+
+        assertThat(result.failed()).isTrue();
+        assertThat(result.getFailure().getReason()).isEqualTo(StreamFailure.Reason.NOT_FOUND);
+    }
+
+    @Test
+    void openPartStream_failsAfterEarlierBodiesWhenLaterResourceFails() throws IOException {
+        var source = source(2, MultiResourceHttpDataSource.Format.NDJSON,
+                resource(CompletableFuture.completedFuture(StreamResult.success(bytes("{\"id\":1}")))),
+                resource(CompletableFuture.completedFuture(StreamResult.notAuthorized())));
+        var output = new ByteArrayOutputStream();
+
+        try (var content = openStream(source)) {
+            assertThatThrownBy(() -> {
+                var buffer = new byte[4];
+                for (int read; (read = content.read(buffer, 0, buffer.length)) != -1; ) {
+                    output.write(buffer, 0, read);
+                }
+            }).isInstanceOf(IOException.class);
+        }
+        assertThat(output.toString(UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void close_cancelsFetchesInFlight() throws IOException {
+        var inFlight = new CompletableFuture<StreamResult<AdmittedBody>>();
+        var notStarted = resource(new CompletableFuture<>());
+        var source = source(2, MultiResourceHttpDataSource.Format.JSON_ARRAY,
+                resource(CompletableFuture.completedFuture(StreamResult.success(bytes("{\"id\":1}")))),
+                resource(inFlight), notStarted);
+
+        openStream(source).close();
+
+        assertThat(inFlight).isCancelled();
+        verify(notStarted, never()).openAsync(any());
+    }
+
+    @Test
+    void read_releasesEachBodyOnceRead() throws IOException {
+        var admission = new AdmissionController(0, 10, 0, Duration.ZERO);
+        var first = new AdmittedBody(new byte[]{'1'}, admission.admit(1));
+        var second = new AdmittedBody(new byte[]{'2'}, admission.admit(1));
+        var source = source(2, MultiResourceHttpDataSource.Format.NDJSON,
+                resource(CompletableFuture.completedFuture(StreamResult.success(first))),
+                resource(CompletableFuture.completedFuture(StreamResult.success(second))));
+
+        try (var content = openStream(source)) {
+            assertThat((char) content.read()).isEqualTo('1');
+            assertThat(admission.admittedOperations()).isEqualTo(2);
+            assertThat((char) content.read()).isEqualTo('\n');
+            assertThat(admission.admittedOperations()).isEqualTo(1);
+        }
+        assertThat(admission.admittedOperations()).isZero();
+    }
+
+    private MultiResourceHttpDataSource source(int parallelism, MultiResourceHttpDataSource.Format format, HttpDataSource... resources) {
+        return MultiResourceHttpDataSource.Builder.newInstance()
+                .name("buildings")
+                .resources(List.of(resources))
+                .executorService(executorService)
+                .parallelism(parallelism)
+                .order(MultiResourceHttpDataSource.Order.INPUT)
+                .format(format)
+                .build();
+    }
+
+    private static HttpDataSource resource(CompletableFuture<StreamResult<AdmittedBody>> result) {
+        var resource = mock(HttpDataSource.class);
+        when(resource.openAsync(any())).thenReturn(result);
+        return resource;
+    }
+
+    private static InputStream openStream(DataSource source) {
+        var parts = source.openPartStream();
+        assertThat(parts.succeeded()).isTrue();
+        return parts.getContent().findFirst().orElseThrow().openStream();
+    }
+
+    private static String read(DataSource source) throws IOException {
+        try (var content = openStream(source)) {
+            return new String(content.readAllBytes(), UTF_8);
+        }
+    }
+
+    private static AdmittedBody bytes(String content) {
+        return new AdmittedBody(content.getBytes(UTF_8), null);
+    }
+}
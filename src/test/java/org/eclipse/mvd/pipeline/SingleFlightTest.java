@@ -0,0 +1,125 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_concurrentCallersShareOneCall() throws Exception {
+        var calls = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var leader = new FutureTask<>(() -> singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        new Thread(leader).start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        var followers = new ArrayList<FutureTask<String>>();
+        for (var i = 0; i < 3; i++) {
+            var follower = new FutureTask<>(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            var thread = new Thread(follower);
+            thread.start();
+            // a follower that has not joined the flight before it completes would start its own call
+            awaitParked(thread);
+            followers.add(follower);
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        for (var follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_differentKeysDoNotShare() {
+        assertThat(singleFlight.execute("first", () -> "1")).isEqualTo("1");
+        assertThat(singleFlight.execute("second", () -> "2")).isEqualTo("2");
+    }
+
+    @Test
+    void execute_nothingCachedAfterCompletion() {
+        var calls = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "value" + calls.incrementAndGet());
+
+        assertThat(singleFlight.execute("key", () -> "value" + calls.incrementAndGet())).isEqualTo("value2");
+    }
+
+    @Test
+    void execute_failureSharedAndNotCached() {
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void executeAsync_sharesInFlightCall() {
+        var upstream = new CompletableFuture<String>();
+        var calls = new AtomicInteger();
+
+        var first = singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        var second = singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        upstream.complete("value");
+
+        assertThat(first).isCompletedWithValue("value");
+        assertThat(second).isCompletedWithValue("value");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture("next"))).isCompletedWithValue("next");
+    }
+
+    @Test
+    void executeAsync_failureOfStartingCall() {
+        var flight = singleFlight.executeAsync("key", () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertThat(flight).isCompletedExceptionally();
+        assertThat(singleFlight.executeAsync("key", () -> CompletableFuture.completedFuture("value"))).isCompletedWithValue("value");
+    }
+
+    /**
+     * Waits until the thread blocks, which a follower only does when joining the flight.
+     */
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertThat(thread.isAlive()).isTrue();
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
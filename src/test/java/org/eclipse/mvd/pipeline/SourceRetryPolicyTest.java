@@ -0,0 +1,60 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceRetryPolicyTest {
+
+    private final SourceRetryPolicy policy = new SourceRetryPolicy(3, Duration.ofMillis(100), Duration.ofMinutes(1));
+
+    @Test
+    void isRetryable() {
+        assertThat(policy.isRetryable(429)).isTrue();
+        assertThat(policy.isRetryable(503)).isTrue();
+        assertThat(policy.isRetryable(500)).isFalse();
+        assertThat(policy.isRetryable(404)).isFalse();
+    }
+
+    @Test
+    void delay_retryAfterSeconds() {
+        assertThat(policy.delay(0, "5")).isEqualTo(Duration.ofSeconds(5));
+        assertThat(policy.delay(0, " 0 ")).isEqualTo(Duration.ZERO);
+        assertThat(policy.delay(0, "-3")).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void delay_retryAfterHttpDate() {
+        var date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+
+        assertThat(policy.delay(0, date)).isBetween(Duration.ofSeconds(28), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void delay_retryAfterHttpDateInPast() {
+        assertThat(policy.delay(0, "Sun, 06 Nov 1994 08:49:37 GMT")).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void delay_exponentialWithoutRetryAfter() {
+        assertThat(policy.delay(0, null)).isEqualTo(Duration.ofMillis(100));
+        assertThat(policy.delay(1, "")).isEqualTo(Duration.ofMillis(200));
+        assertThat(policy.delay(2, "not a delay")).isEqualTo(Duration.ofMillis(400));
+    }
+
+    @Test
+    void delay_nullWhenRetriesExhausted() {
+        assertThat(policy.delay(3, "1")).isNull();
+    }
+
+    @Test
+    void delay_nullWhenLongerThanMaxDelay() {
+        assertThat(policy.delay(0, "61")).isNull();
+        assertThat(policy.delay(0, "60")).isEqualTo(Duration.ofMinutes(1));
+    }
+}
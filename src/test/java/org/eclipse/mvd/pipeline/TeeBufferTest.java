@@ -0,0 +1,213 @@
+package org.eclipse.edc.mvd.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TeeBufferTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void pump_replaysSourceToEveryReader() throws Exception {
+        var content = new byte[3 * CHUNK_SIZE + 17];
+        for (var i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        var tee = new TeeBuffer(2, CHUNK_SIZE);
+        var first = executorService.submit(() -> tee.readers().get(0).readAllBytes());
+        var second = executorService.submit(() -> tee.readers().get(1).readAllBytes());
+
+        tee.pump(new ByteArrayInputStream(content));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(content);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(content);
+    }
+
+    @Test
+    void pump_pausesWhileSlowestReaderLagsBehind() throws Exception {
+        var tee = new TeeBuffer(2, CHUNK_SIZE + 1);
+        var fast = tee.readers().get(0);
+        var slow = tee.readers().get(1);
+        var fastRead = new AtomicLong();
+        var fastReader = reader(fast, fastRead);
+        var pump = pump(tee, new ZeroInputStream(16 * CHUNK_SIZE));
+
+        // the pump appends while the lag is below the bound, so it stops at the first chunk reaching it
+        awaitRead(fastRead, 2L * CHUNK_SIZE);
+        awaitWaiting(pump);
+        awaitWaiting(fastReader);
+
+        assertThat(fastRead.get()).isEqualTo(2L * CHUNK_SIZE);
+
+        assertThat(slow.readAllBytes()).hasSize(16 * CHUNK_SIZE);
+        pump.join();
+        fastReader.join();
+        assertThat(fastRead.get()).isEqualTo(16L * CHUNK_SIZE);
+    }
+
+    @Test
+    void close_detachedReaderReleasesBlockedPump() throws Exception {
+        var tee = new TeeBuffer(2, CHUNK_SIZE);
+        var fast = tee.readers().get(0);
+        var stalled = tee.readers().get(1);
+        var fastRead = new AtomicLong();
+        var fastReader = reader(fast, fastRead);
+        var pump = pump(tee, new ZeroInputStream(16 * CHUNK_SIZE));
+        awaitRead(fastRead, CHUNK_SIZE);
+        awaitWaiting(pump);
+
+        stalled.close();
+
+        pump.join(5000);
+        fastReader.join(5000);
+        assertThat(pump.isAlive()).isFalse();
+        assertThat(fastRead.get()).isEqualTo(16L * CHUNK_SIZE);
+        assertThatThrownBy(stalled::read).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void close_allReadersStopsPumpAndClosesSource() throws Exception {
+        var tee = new TeeBuffer(1, CHUNK_SIZE);
+        var closed = new AtomicLong();
+        var source = new ZeroInputStream(16 * CHUNK_SIZE) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+        var pump = pump(tee, source);
+        awaitWaiting(pump);
+
+        tee.readers().get(0).close();
+
+        pump.join(5000);
+        assertThat(pump.isAlive()).isFalse();
+        assertThat(closed.get()).isEqualTo(1);
+    }
+
+    @Test
+    void pump_spreadsSourceFailureToReaders() throws Exception {
+        var tee = new TeeBuffer(2, 4 * CHUNK_SIZE);
+        var failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("upstream reset");
+            }
+        };
+        var first = read(tee.readers().get(0));
+        var second = read(tee.readers().get(1));
+
+        tee.pump(new SequenceInputStream(new ByteArrayInputStream(new byte[10]), failing));
+
+        for (var reader : new Future<?>[]{ first, second }) {
+            assertThatThrownBy(() -> reader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IOException.class)
+                    .hasRootCauseMessage("upstream reset");
+        }
+    }
+
+    @Test
+    void pump_spreadsRuntimeFailureToReadersAndRethrows() throws Exception {
+        var tee = new TeeBuffer(1, CHUNK_SIZE);
+        var failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new IllegalStateException("transcoding failed");
+            }
+        };
+        var reader = read(tee.readers().get(0));
+
+        assertThatThrownBy(() -> tee.pump(failing)).isInstanceOf(IllegalStateException.class);
+
+        assertThatThrownBy(() -> reader.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("transcoding failed");
+    }
+
+    private Future<byte[]> read(InputStream reader) {
+        return executorService.submit(reader::readAllBytes);
+    }
+
+    private static Thread reader(InputStream reader, AtomicLong read) {
+        var thread = new Thread(() -> {
+            var buffer = new byte[8192];
+            try {
+                for (int count; (count = reader.read(buffer)) != -1; ) {
+                    read.addAndGet(count);
+                }
+            } catch (IOException e) {
+                // the test asserts on the bytes read
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static Thread pump(TeeBuffer tee, InputStream source) {
+        var thread = new Thread(() -> tee.pump(source));
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitRead(AtomicLong read, long expected) throws InterruptedException {
+        while (read.get() < expected) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertThat(thread.isAlive()).isTrue();
+            Thread.sleep(1);
+        }
+    }
+
+    private static class ZeroInputStream extends InputStream {
+        private long remaining;
+
+        ZeroInputStream(long length) {
+            remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            var count = (int) Math.min(length, remaining);
+            Arrays.fill(buffer, offset, offset + count, (byte) 0);
+            remaining -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.eclipse.edc.mvd.tracing;
+
+import com.google.gson.JsonParser;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class FileSpanExporterTest {
+
+    @TempDir
+    private Path directory;
+
+    private final Monitor monitor = mock(Monitor.class);
+
+    @Test
+    void close_writesQueuedSpans() throws Exception {
+        var file = directory.resolve("traces/spans.ndjson");
+        var exporter = new FileSpanExporter(file, 100, monitor);
+
+        exporter.export(new SpanData("request", 1, 0, "outer", 10, 20, Map.of(), null));
+        exporter.export(new SpanData("request", 2, 1, "inner", 11, 5, Map.of("bytes", "4"), "failed"));
+        exporter.close();
+
+        var lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        var outer = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        assertThat(outer.get("traceId").getAsString()).isEqualTo("request");
+        assertThat(outer.get("parentSpanId").isJsonNull()).isTrue();
+        assertThat(outer.has("error")).isFalse();
+        var inner = JsonParser.parseString(lines.get(1)).getAsJsonObject();
+        assertThat(inner.get("parentSpanId").getAsString()).isEqualTo("1");
+        assertThat(inner.getAsJsonObject("attributes").get("bytes").getAsString()).isEqualTo("4");
+        assertThat(inner.get("error").getAsString()).isEqualTo("failed");
+        verify(monitor, never()).warning(anyString());
+    }
+
+    @Test
+    void export_dropsSpansWhenQueueIsFull() throws Exception {
+        var file = directory.resolve("spans.ndjson");
+        var exporter = new FileSpanExporter(file, 1, monitor);
+
+        for (var i = 0; i < 10_000; i++) {
+            exporter.export(new SpanData("request", i, 0, "stage", 0, 0, Map.of(), null));
+        }
+        exporter.close();
+
+        // every span is either written or counted as dropped
+        assertThat(Files.readAllLines(file).size() + exporter.droppedSpans()).isEqualTo(10_000);
+        assertThat(exporter.droppedSpans()).isPositive();
+        verify(monitor).warning(contains("Dropped " + exporter.droppedSpans() + " spans"));
+    }
+
+    @Test
+    void constructor_appendsToExistingFile() throws Exception {
+        var file = directory.resolve("spans.ndjson");
+        Files.writeString(file, "{}\n");
+        var exporter = new FileSpanExporter(file, 10, monitor);
+
+        exporter.export(new SpanData("request", 1, 0, "stage", 0, 0, Map.of(), null));
+        exporter.close();
+
+        assertThat(Files.readAllLines(file)).hasSize(2).first().isEqualTo("{}");
+    }
+}
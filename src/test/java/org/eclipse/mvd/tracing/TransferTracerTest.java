@@ -0,0 +1,127 @@
+package org.eclipse.edc.mvd.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransferTracerTest {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter(100);
+
+    @Test
+    void start_nestsSpansOpenOnSameThread() {
+        var tracer = new TransferTracer(1, exporter);
+
+        try (var outer = tracer.start("request", "outer")) {
+            outer.attribute("parts", 1);
+            try (var inner = tracer.start("request", "inner")) {
+                inner.attribute("bytes", 4);
+            }
+            tracer.start("request", "sibling").close();
+        }
+        tracer.start("request", "root").close();
+
+        var spans = exporter.spans("request");
+        var outer = span("outer");
+        assertThat(spans).extracting(SpanData::name).containsExactly("inner", "sibling", "outer", "root");
+        assertThat(outer.parentSpanId()).isZero();
+        assertThat(span("inner").parentSpanId()).isEqualTo(outer.spanId());
+        assertThat(span("inner").attributes()).containsEntry("bytes", "4");
+        assertThat(span("sibling").parentSpanId()).isEqualTo(outer.spanId());
+        assertThat(span("root").parentSpanId()).isZero();
+    }
+
+    @Test
+    void start_doesNotNestOtherTransfersOrThreads() throws InterruptedException {
+        var tracer = new TransferTracer(1, exporter);
+
+        try (var outer = tracer.start("request", "outer")) {
+            outer.attribute("parts", 1);
+            tracer.start("other", "other").close();
+            var thread = new Thread(() -> tracer.start("request", "thread").close());
+            thread.start();
+            thread.join();
+            tracer.startDetached("request", "detached").close();
+        }
+
+        assertThat(span("other").parentSpanId()).isZero();
+        assertThat(span("thread").parentSpanId()).isZero();
+        assertThat(span("detached").parentSpanId()).isZero();
+    }
+
+    @Test
+    void startDetached_doesNotBecomeParent() {
+        var tracer = new TransferTracer(1, exporter);
+
+        try (var detached = tracer.startDetached("request", "detached")) {
+            detached.attribute("parts", 1);
+            tracer.start("request", "root").close();
+        }
+
+        assertThat(span("root").parentSpanId()).isZero();
+    }
+
+    @Test
+    void child_mayBeClosedOnAnotherThread() throws InterruptedException {
+        var tracer = new TransferTracer(1, exporter);
+        var child = new AtomicReference<Span>();
+
+        try (var parent = tracer.start("request", "parent")) {
+            child.set(parent.child("child").error("failed"));
+        }
+        var thread = new Thread(() -> child.get().close());
+        thread.start();
+        thread.join();
+        tracer.start("request", "root").close();
+
+        assertThat(span("child").parentSpanId()).isEqualTo(span("parent").spanId());
+        assertThat(span("child").error()).isEqualTo("failed");
+        assertThat(span("root").parentSpanId()).isZero();
+    }
+
+    @Test
+    void start_samplesNothingAtRateZero() {
+        var tracer = new TransferTracer(0, exporter);
+
+        var span = tracer.start("request", "stage");
+        span.attribute("bytes", 4).child("child").close();
+        span.close();
+
+        assertThat(span.isSampled()).isFalse();
+        assertThat(exporter.spans()).isEmpty();
+    }
+
+    @Test
+    void start_samplesTransfersByRequestId() {
+        var tracer = new TransferTracer(0.25, exporter);
+
+        var sampled = 0;
+        for (var i = 0; i < 10_000; i++) {
+            var requestId = "request-" + i;
+            var first = tracer.start(requestId, "first");
+            first.close();
+            var second = tracer.start(requestId, "second");
+            second.close();
+            assertThat(second.isSampled()).isEqualTo(first.isSampled());
+            if (first.isSampled()) {
+                sampled++;
+            }
+        }
+
+        assertThat(sampled).isBetween(2_200, 2_800);
+        assertThat(tracer.start(null, "stage").isSampled()).isFalse();
+    }
+
+    @Test
+    void constructor_rejectsRateOutOfRange() {
+        assertThatThrownBy(() -> new TransferTracer(-0.1, exporter)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TransferTracer(1.1, exporter)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SpanData span(String name) {
+        return exporter.spans().stream().filter(span -> span.name().equals(name)).findFirst().orElseThrow();
+    }
+}